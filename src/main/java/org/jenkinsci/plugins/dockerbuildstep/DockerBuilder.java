@@ -2,23 +2,27 @@ package org.jenkinsci.plugins.dockerbuildstep;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.trimToNull;
 
 import java.io.Serializable;
-import java.net.URI;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.UnrecoverableKeyException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.net.ssl.SSLContext;
-
-import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
-import com.github.dockerjava.transport.DockerHttpClient;
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerEndpointAction;
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerSessionAction;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand.DockerCommandDescriptor;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.DaemonHealth;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientFactory;
+import org.jenkinsci.plugins.dockerbuildstep.util.EndpointSelector;
+import org.jenkinsci.plugins.dockerbuildstep.util.ResolutionContext;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
@@ -28,12 +32,6 @@ import org.kohsuke.stapler.interceptor.RequirePOST;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.exception.DockerException;
 import com.github.dockerjava.api.model.AuthConfig;
-import com.github.dockerjava.core.DefaultDockerClientConfig;
-import com.github.dockerjava.core.DockerClientBuilder;
-
-import com.github.dockerjava.core.LocalDirectorySSLConfig;
-import com.github.dockerjava.core.SSLConfig;
-
 
 import hudson.AbortException;
 import hudson.DescriptorExtensionList;
@@ -42,6 +40,7 @@ import hudson.Launcher;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.BuildListener;
+import hudson.model.Computer;
 import jenkins.model.Jenkins;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
@@ -69,23 +68,40 @@ public class DockerBuilder extends Builder {
     @Override
     public boolean perform(@SuppressWarnings("rawtypes") AbstractBuild build, Launcher launcher, BuildListener listener)
             throws AbortException {
+        // all the fields of the step are resolved against the same build variables and environment
+        try (ResolutionContext ctx = ResolutionContext.open(build)) {
+            return perform(build, launcher, new ConsoleLogger(listener));
+        }
+    }
 
-        ConsoleLogger clog = new ConsoleLogger(listener);
-
+    private boolean perform(AbstractBuild<?, ?> build, Launcher launcher, ConsoleLogger clog) throws AbortException {
         if (getDescriptor().getDockerClient(build, null) == null) {
             clog.logError("docker client is not initialized, command '" + dockerCmd.getDescriptor().getDisplayName()
                     + "' was aborted. Check Jenkins server log which Docker client wasn't initialized");
             throw new AbortException("Docker client wasn't initialized.");
         }
 
-        try {
+        String dockerUrl = getDescriptor().getConfig(build).dockerUrlRes;
+        // a command placing the build checks the health of the endpoints it chooses from instead
+        if (!dockerCmd.placesOnEndpoint(build)) {
+            DaemonHealth health = DockerHealthMonitor.getHealth(dockerUrl);
+            if (health != null && health.isOpen()) {
+                clog.logError("Docker daemon " + dockerUrl + " failed its last " + health.getConsecutiveFailures()
+                        + " health checks (" + health.getLastError() + "), command '"
+                        + dockerCmd.getDescriptor().getDisplayName() + "' was aborted");
+                throw new AbortException("Docker daemon " + dockerUrl + " is unhealthy.");
+            }
+        }
+
+        // charged to the chosen endpoint instead once the command places the build
+        try (EndpointSelector.Usage usage = EndpointSelector.use(dockerUrl)) {
             dockerCmd.execute(launcher, build, clog);
         } catch (DockerException e) {
             clog.logError("command '" + dockerCmd.getDescriptor().getDisplayName() + "' failed: " + e.getMessage());
             LOGGER.severe("Failed to execute Docker command " + dockerCmd.getDescriptor().getDisplayName() + ": "
                     + e.getMessage());
             throw new AbortException(e.getMessage());
-        } 
+        }
         return true;
     }
 
@@ -99,64 +115,51 @@ public class DockerBuilder extends Builder {
 
         private static final long serialVersionUID = -4606090261824385504L;
 
+        private static final DockerClientCache CLIENTS = new DockerClientCache();
+
+        /**
+         * Number of remote calls for different containers which may run in parallel when not configured.
+         */
+        public static final int DEFAULT_MAX_IN_FLIGHT_CALLS = 8;
+
+        /**
+         * Minutes after the build finished before its containers are reaped when not configured.
+         */
+        public static final int DEFAULT_REAPER_GRACE_PERIOD = 10;
+
         private String dockerUrl;
         private String dockerVersion;
         private String dockerCertPath;
+        private int maxConnections;
+        private int connectTimeout;
+        private int responseTimeout;
+        private int maxInFlightCalls;
+        private boolean reapOrphans;
+        private int reaperGracePeriod;
+        private List<DockerEndpoint> endpoints;
+
+        private transient final AtomicReference<ClientStatus> clientStatus = new AtomicReference<ClientStatus>(
+                new ClientStatus(ClientStatus.State.NOT_CONFIGURED, "Docker client wasn't initialized yet"));
 
         public DescriptorImpl() {
+            // client is initialized in background once Jenkins is started, see PluginImpl
             load();
-
-            if (isEmpty(dockerUrl)) {
-                LOGGER.warning("Docker URL is not set, docker client won't be initialized");
-                return;
-            }
-
-            try {
-                getDockerClient(null, null);
-            } catch (Exception e) {
-                LOGGER.warning("Cannot create Docker client: " + e.getCause());
-            }
-        }
-
-        private static DockerClient createDockerClient(String dockerUrl, String dockerVersion, String dockerCertPath,
-                                                       AuthConfig authConfig) {
-            // TODO JENKINS-26512
-            SSLConfig dummySSLConf = (new SSLConfig() {
-                public SSLContext getSSLContext() throws KeyManagementException, UnrecoverableKeyException,
-                        NoSuchAlgorithmException, KeyStoreException {
-                    return null;
-                }
-            });
-
-            if (dockerCertPath != null) {
-                dummySSLConf = new LocalDirectorySSLConfig(dockerCertPath);
-            }
-            
-            DefaultDockerClientConfig.Builder configBuilder = new DefaultDockerClientConfig.Builder().withDockerHost(dockerUrl)
-                    .withApiVersion(dockerVersion).withCustomSslConfig(dummySSLConf);
-            if (authConfig != null) {
-                configBuilder.withRegistryUsername(authConfig.getUsername())
-                        .withRegistryEmail(authConfig.getEmail())
-                        .withRegistryPassword(authConfig.getPassword())
-                        .withRegistryUrl(authConfig.getRegistryAddress());
-            }
-
-            DefaultDockerClientConfig config = configBuilder.build();
-
-            DockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
-                    .dockerHost(URI.create(dockerUrl))
-                    .build();
-            return DockerClientBuilder.getInstance(config)
-                    .withDockerHttpClient(httpClient)
-                    .build();
         }
 
         @RequirePOST
-        public FormValidation doTestConnection(@QueryParameter String dockerUrl, @QueryParameter String dockerVersion, @QueryParameter String dockerCertPath) {
+        public FormValidation doTestConnection(@QueryParameter String dockerUrl, @QueryParameter String dockerVersion,
+                @QueryParameter String dockerCertPath, @QueryParameter String connectTimeout,
+                @QueryParameter String responseTimeout) {
             Jenkins.get().checkPermission(Jenkins.MANAGE);
             LOGGER.fine(String.format("Trying to get client for %s and version %s and cert path %s", dockerUrl, dockerVersion, dockerCertPath));
+            Config cfg;
             try {
-                DockerClient dockerClient = createDockerClient(dockerUrl, dockerVersion, dockerCertPath, null);
+                cfg = new Config(dockerUrl, dockerVersion, dockerCertPath, 1, parseNonNegative(connectTimeout),
+                        parseNonNegative(responseTimeout));
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(e.getMessage());
+            }
+            try (DockerClient dockerClient = DockerClientFactory.create(cfg, null)) {
                 dockerClient.pingCmd().exec();
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, e.getMessage(), e);
@@ -179,6 +182,13 @@ public class DockerBuilder extends Builder {
             dockerUrl = formData.getString("dockerUrl");
             dockerVersion = formData.getString("dockerVersion");
             dockerCertPath = formData.getString("dockerCertPath");
+            maxConnections = parseNonNegative(formData, "maxConnections");
+            connectTimeout = parseNonNegative(formData, "connectTimeout");
+            responseTimeout = parseNonNegative(formData, "responseTimeout");
+            maxInFlightCalls = parseNonNegative(formData, "maxInFlightCalls");
+            reapOrphans = formData.optBoolean("reapOrphans");
+            reaperGracePeriod = parseNonNegative(formData, "reaperGracePeriod");
+            endpoints = req.bindJSONToList(DockerEndpoint.class, formData.get("endpoints"));
 
             if (isBlank(dockerUrl)) {
                 LOGGER.severe("Docker URL is empty, Docker build test plugin cannot work without Docker URL being set up properly");
@@ -187,13 +197,47 @@ public class DockerBuilder extends Builder {
             }
 
             save();
+            initDockerClient();
+            return super.configure(req, formData);
+        }
 
-            try {
-                getDockerClient(null, null);
-            } catch (Exception e) {
-                LOGGER.warning("Cannot create Docker client: " + e.getCause());
+        /**
+         * Creates client of the global Docker server and checks the connection in background, so that neither the
+         * startup nor saving the configuration waits for the server. The client is cached, so the first command
+         * finds it ready.
+         */
+        public void initDockerClient() {
+            if (isEmpty(dockerUrl)) {
+                LOGGER.warning("Docker URL is not set, docker client won't be initialized");
+                clientStatus.set(new ClientStatus(ClientStatus.State.NOT_CONFIGURED, "Docker URL is not set"));
+                return;
             }
-            return super.configure(req, formData);
+
+            final String url = dockerUrl;
+            final ClientStatus initializing = new ClientStatus(ClientStatus.State.INITIALIZING,
+                    "Connecting to " + url);
+            clientStatus.set(initializing);
+            Computer.threadPoolForRemoting.submit(() -> {
+                ClientStatus result;
+                try (DockerClientCache.Lease lease = acquireDockerClient(new Config(null, null, null, maxConnections,
+                        connectTimeout, responseTimeout), null)) {
+                    lease.getClient().pingCmd().exec();
+                    result = new ClientStatus(ClientStatus.State.READY, "Connected to " + url);
+                } catch (Exception e) {
+                    LOGGER.warning("Cannot create Docker client: " + e.getMessage());
+                    result = new ClientStatus(ClientStatus.State.FAILED, "Cannot connect to " + url + ": "
+                            + e.getMessage());
+                }
+                // configuration may have been changed in the meantime
+                clientStatus.compareAndSet(initializing, result);
+            });
+        }
+
+        /**
+         * @return result of the last initialization of the global Docker client
+         */
+        public ClientStatus getClientStatus() {
+            return clientStatus.get();
         }
 
         public String getDockerUrl() {
@@ -208,8 +252,146 @@ public class DockerBuilder extends Builder {
             return dockerCertPath;
         }
 
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public int getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        /**
+         * @return additional Docker servers which builds can be placed on, never <code>null</code>
+         */
+        public List<DockerEndpoint> getEndpoints() {
+            return endpoints == null ? Collections.<DockerEndpoint> emptyList() : endpoints;
+        }
+
+        /**
+         * @return settings of the global Docker server followed by the additional endpoints, as checked by
+         *         {@link DockerHealthMonitor}. Servers whose URL contains variables are left out, as the URL is known
+         *         only within a build.
+         */
+        public List<Config> getMonitoredConfigs() {
+            List<Config> configs = new ArrayList<Config>();
+            addMonitored(configs, getConfig(null));
+            for (DockerEndpoint endpoint : getEndpoints()) {
+                addMonitored(configs, getConfig(endpoint, null));
+            }
+            return configs;
+        }
+
+        private static void addMonitored(List<Config> configs, Config cfgData) {
+            if (cfgData.dockerUrlRes == null || !cfgData.dockerUrlRes.contains("$")) {
+                configs.add(cfgData);
+            }
+        }
+
+        /**
+         * @return health of the configured Docker servers, shown on the global configuration page
+         */
+        public List<DaemonHealth> getHealthReports() {
+            return DockerHealthMonitor.getHealthReports(getMonitoredConfigs());
+        }
+
+        public int getMaxInFlightCalls() {
+            return maxInFlightCalls;
+        }
+
+        /**
+         * @return number of remote calls for different containers which may run in parallel
+         */
+        public int getEffectiveMaxInFlightCalls() {
+            return maxInFlightCalls > 0 ? maxInFlightCalls : DEFAULT_MAX_IN_FLIGHT_CALLS;
+        }
+
+        /**
+         * @return true if containers of builds which are no longer running should be removed by
+         *         {@link DockerContainerReaper}
+         */
+        public boolean isReapOrphans() {
+            return reapOrphans;
+        }
+
+        public int getReaperGracePeriod() {
+            return reaperGracePeriod;
+        }
+
+        /**
+         * @return minutes after the build finished before its containers are reaped
+         */
+        public int getEffectiveReaperGracePeriod() {
+            return reaperGracePeriod > 0 ? reaperGracePeriod : DEFAULT_REAPER_GRACE_PERIOD;
+        }
+
+        /**
+         * @return containers reaped on the configured Docker servers, shown on the global configuration page
+         */
+        public List<DockerContainerReaper.Stats> getReaperStats() {
+            return DockerContainerReaper.getStats(getMonitoredConfigs());
+        }
+
+        public FormValidation doCheckReaperGracePeriod(@QueryParameter String value) {
+            return checkNonNegative(value);
+        }
+
+        public FormValidation doCheckMaxConnections(@QueryParameter String value) {
+            return checkNonNegative(value);
+        }
+
+        public FormValidation doCheckConnectTimeout(@QueryParameter String value) {
+            return checkNonNegative(value);
+        }
+
+        public FormValidation doCheckResponseTimeout(@QueryParameter String value) {
+            return checkNonNegative(value);
+        }
+
+        public FormValidation doCheckMaxInFlightCalls(@QueryParameter String value) {
+            return checkNonNegative(value);
+        }
+
+        private static FormValidation checkNonNegative(String value) {
+            try {
+                parseNonNegative(value);
+                return FormValidation.ok();
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(e.getMessage());
+            }
+        }
+
+        private static int parseNonNegative(JSONObject formData, String field) throws FormException {
+            try {
+                return parseNonNegative(formData.optString(field));
+            } catch (IllegalArgumentException e) {
+                throw new FormException(e.getMessage(), field);
+            }
+        }
+
+        /**
+         * Parses optional numeric setting, blank value means the default, which is represented by 0.
+         */
+        private static int parseNonNegative(String value) {
+            if (isBlank(value)) {
+                return 0;
+            }
+            try {
+                int number = Integer.parseInt(value.trim());
+                if (number >= 0) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Value must be a non-negative number: " + value);
+        }
+
         public DockerClient getDockerClient(AuthConfig authConfig) {
-            // Reason to return a new DockerClient each time this function is called:
+            // Clients are cached per resolved URL, version, cert path and registry credentials, because:
             // - It is a legitimate scenario that different jobs or different build steps
             //   in the same job may need to use one credential to connect to one 
             //   docker registry but needs another credential to connect to another docker
@@ -218,26 +400,122 @@ public class DockerBuilder extends Builder {
             //   AuthConfig to be provided when DockerClient is created for certain commands
             //   when auth is needed. We don't have control on how docker-java client is
             //   implemented.
-            // So to satisfy thread safety on the returned DockerClient
-            // (when different AuthConfig are are needed), it is better to return a new 
-            // instance each time this function is called.
-            return createDockerClient(dockerUrl, dockerVersion, dockerCertPath, authConfig);
+            // So a client (and its connection pool) is shared only by callers using the same credentials.
+            return getDockerClient(null, null, null, authConfig);
         }
 
         public DockerClient getDockerClient(AbstractBuild<?, ?> build, AuthConfig authConfig) {
-            return getDockerClient(Resolver.buildVar(build, dockerUrl), Resolver.buildVar(build, dockerVersion), Resolver.buildVar(build, dockerCertPath), authConfig);
+            final Config cfg = getConfig(build);
+            // client without registry credentials is held by the build, so all its steps use the same one
+            DockerSessionAction session = authConfig == null ? DockerSessionAction.of(build) : null;
+            if (session != null) {
+                return session.getClient(cfg, () -> acquireDockerClient(cfg, null));
+            }
+            return getDockerClient(cfg, authConfig);
         }
 
+        /**
+         * Returns settings for given build. If a Docker server was chosen for the build, it is used, then the server
+         * local to the node the build runs on, and finally the globally configured one.
+         */
         public Config getConfig(AbstractBuild<?, ?> build) {
-            return new Config(Resolver.buildVar(build, dockerUrl), Resolver.buildVar(build, dockerVersion), Resolver.buildVar(build, dockerCertPath));
+            // resolved only once per build, see DockerSessionAction
+            DockerSessionAction session = DockerSessionAction.of(build);
+            Config cfg = session == null ? null : session.getConfig();
+            if (cfg == null) {
+                cfg = resolveConfig(build);
+                if (session != null) {
+                    session.setConfig(cfg);
+                }
+            }
+            return cfg;
+        }
+
+        private Config resolveConfig(AbstractBuild<?, ?> build) {
+            DockerEndpointAction endpoint = build == null ? null : build.getAction(DockerEndpointAction.class);
+            if (endpoint != null) {
+                return new Config(endpoint.getDockerUrl(), endpoint.getDockerVersion(), endpoint.getDockerCertPath(),
+                        maxConnections, connectTimeout, responseTimeout);
+            }
+            DockerNodeProperty local = DockerNodeProperty.forBuild(build);
+            if (local != null) {
+                return getConfig(local, build);
+            }
+            return new Config(Resolver.buildVar(build, dockerUrl), Resolver.buildVar(build, dockerVersion),
+                    Resolver.buildVar(build, dockerCertPath), maxConnections, connectTimeout, responseTimeout);
+        }
+
+        /**
+         * Returns settings for given node-local Docker server.
+         */
+        public Config getConfig(DockerNodeProperty local, AbstractBuild<?, ?> build) {
+            return new Config(Resolver.buildVar(build, local.getDockerUrl()),
+                    Resolver.buildVar(build, trimToNull(local.getDockerVersion())),
+                    Resolver.buildVar(build, trimToNull(local.getDockerCertPath())), maxConnections, connectTimeout,
+                    responseTimeout);
+        }
+
+        /**
+         * Returns settings for given additional Docker server.
+         */
+        public Config getConfig(DockerEndpoint endpoint, AbstractBuild<?, ?> build) {
+            return new Config(Resolver.buildVar(build, endpoint.getUrl()), Resolver.buildVar(build, endpoint.getVersion()),
+                    Resolver.buildVar(build, trimToNull(endpoint.getCertPath())), maxConnections, connectTimeout,
+                    responseTimeout);
         }
 
+        /**
+         * Returns cached client for given settings. Settings which are <code>null</code> are taken from the global
+         * configuration. Returned client is shared and must not be closed by the caller.
+         */
         public DockerClient getDockerClient(String dockerUrlRes, String dockerVersionRes, String dockerCertPathRes, AuthConfig authConfig) {
-            return createDockerClient(
-                    dockerUrlRes == null ? Resolver.envVar(dockerUrl) : dockerUrlRes,
-                    dockerVersionRes == null ? Resolver.envVar(dockerVersion) : dockerVersionRes,
-                    dockerCertPathRes == null ? Resolver.envVar(dockerCertPath) : dockerCertPathRes,
-                    authConfig);
+            return getDockerClient(new Config(dockerUrlRes, dockerVersionRes, dockerCertPathRes, maxConnections,
+                    connectTimeout, responseTimeout), authConfig);
+        }
+
+        /**
+         * Returns cached client for given configuration. Connection settings which are <code>null</code> are taken
+         * from the global configuration. Returned client is shared and must not be closed by the caller.
+         *
+         * @deprecated the caller can't tell when it's done with the client, so the client is never released and stays
+         *             open even once evicted from the cache; use {@link #acquireDockerClient(Config, AuthConfig)}
+         */
+        @Deprecated
+        public DockerClient getDockerClient(Config cfgData, AuthConfig authConfig) {
+            return acquireDockerClient(cfgData, authConfig).getClient();
+        }
+
+        /**
+         * Returns cached client for given configuration. Connection settings which are <code>null</code> are taken
+         * from the global configuration. The client won't be closed until the returned lease is closed.
+         */
+        public DockerClientCache.Lease acquireDockerClient(Config cfgData, AuthConfig authConfig) {
+            final Config cfg = withGlobalDefaults(cfgData);
+            return CLIENTS.acquire(new DockerClientCache.Key(cfg, authConfig), () -> DockerClientFactory.create(cfg, authConfig));
+        }
+
+        /**
+         * Creates new client which is not cached. Use for long-living operations, like following container output
+         * during whole build. Caller is responsible for closing the client.
+         */
+        public DockerClient newDockerClient(AbstractBuild<?, ?> build, AuthConfig authConfig) {
+            return newDockerClient(getConfig(build), authConfig);
+        }
+
+        /**
+         * Creates new client which is not cached. Connection settings which are <code>null</code> are taken from the
+         * global configuration. Caller is responsible for closing the client.
+         */
+        public DockerClient newDockerClient(Config cfgData, AuthConfig authConfig) {
+            return DockerClientFactory.create(withGlobalDefaults(cfgData), authConfig);
+        }
+
+        private Config withGlobalDefaults(Config cfgData) {
+            return new Config(
+                    cfgData.dockerUrlRes == null ? Resolver.envVar(dockerUrl) : cfgData.dockerUrlRes,
+                    cfgData.dockerVersionRes == null ? Resolver.envVar(dockerVersion) : cfgData.dockerVersionRes,
+                    cfgData.dockerCertPathRes == null ? Resolver.envVar(dockerCertPath) : cfgData.dockerCertPathRes,
+                    cfgData.maxConnections, cfgData.connectTimeout, cfgData.responseTimeout);
         }
 
         public DescriptorExtensionList<DockerCommand, DockerCommandDescriptor> getCmdDescriptors() {
@@ -248,15 +526,95 @@ public class DockerBuilder extends Builder {
 
     private static Logger LOGGER = Logger.getLogger(DockerBuilder.class.getName());
 
+    /**
+     * State of the background initialization of the global Docker client, shown on the global configuration page.
+     */
+    public static final class ClientStatus {
+
+        public enum State {
+            NOT_CONFIGURED, INITIALIZING, READY, FAILED
+        }
+
+        private final State state;
+        private final String message;
+
+        public ClientStatus(State state, String message) {
+            this.state = state;
+            this.message = message;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public boolean isReady() {
+            return state == State.READY;
+        }
+    }
+
+    /**
+     * Resolved connection settings sent to the build node with every remote call. It holds everything needed to create
+     * a Docker client there, without access to Jenkins.
+     */
     public static class Config implements Serializable {
 		private static final long serialVersionUID = -2906931690456614657L;
 
 		final public String dockerUrlRes, dockerVersionRes, dockerCertPathRes;
 
+		/**
+		 * Size of the HTTP connection pool and connect and response timeouts in seconds. 0 means the default.
+		 */
+		final public int maxConnections, connectTimeout, responseTimeout;
+
 		public Config(String dockerUrlRes, String dockerVersionRes, String dockerCertPathRes) {
+			this(dockerUrlRes, dockerVersionRes, dockerCertPathRes, 0, 0, 0);
+		}
+
+		public Config(String dockerUrlRes, String dockerVersionRes, String dockerCertPathRes, int maxConnections,
+				int connectTimeout, int responseTimeout) {
 			this.dockerUrlRes = dockerUrlRes;
 			this.dockerVersionRes = dockerVersionRes;
 			this.dockerCertPathRes = dockerCertPathRes;
+			this.maxConnections = maxConnections;
+			this.connectTimeout = connectTimeout;
+			this.responseTimeout = responseTimeout;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Config)) {
+				return false;
+			}
+			Config other = (Config) o;
+			return Objects.equals(dockerUrlRes, other.dockerUrlRes)
+					&& Objects.equals(dockerVersionRes, other.dockerVersionRes)
+					&& Objects.equals(dockerCertPathRes, other.dockerCertPathRes)
+					&& maxConnections == other.maxConnections && connectTimeout == other.connectTimeout
+					&& responseTimeout == other.responseTimeout;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(dockerUrlRes, dockerVersionRes, dockerCertPathRes, maxConnections, connectTimeout,
+					responseTimeout);
+		}
+
+		/**
+		 * @return same settings without response timeout, for clients following streams which may be silent for a
+		 *         long time, like events or container output
+		 */
+		public Config withoutResponseTimeout() {
+			if (responseTimeout == 0) {
+				return this;
+			}
+			return new Config(dockerUrlRes, dockerVersionRes, dockerCertPathRes, maxConnections, connectTimeout, 0);
 		}
     }
 
@@ -0,0 +1,250 @@
+package org.jenkinsci.plugins.dockerbuildstep;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import com.github.dockerjava.api.model.Container;
+
+import hudson.Extension;
+import hudson.Functions;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+
+/**
+ * Periodically stops and removes containers created by builds of this controller which are no longer running, e.g.
+ * because the build was aborted before its post build cleanup or the controller was restarted. Containers are found
+ * by their {@link OwnershipLabels}, so containers created otherwise or by other controllers are never touched.
+ *
+ * Reaping is disabled by default, as some jobs create containers which are meant to outlive the build. A container is
+ * reaped only when its build finished at least the grace period ago, and at most {@link #BATCH_SIZE} containers per
+ * Docker server are reaped in one run. Containers of jobs which can't be found are kept, as the job may have been
+ * renamed or moved while its build is still running.
+ */
+@Extension
+public class DockerContainerReaper extends AsyncPeriodicWork {
+
+    public static final long RECURRENCE_PERIOD = Long.getLong(DockerContainerReaper.class.getName()
+            + ".recurrencePeriod", TimeUnit.MINUTES.toMillis(5));
+
+    /**
+     * Maximum number of containers reaped on a single Docker server in one run.
+     */
+    public static final int BATCH_SIZE = Integer.getInteger(DockerContainerReaper.class.getName() + ".batchSize", 20);
+
+    /**
+     * Seconds a container gets to stop before it's killed.
+     */
+    public static final int STOP_TIMEOUT = 10;
+
+    private static final ConcurrentMap<String, Stats> STATS = new ConcurrentHashMap<String, Stats>();
+
+    public DockerContainerReaper() {
+        super("Docker orphaned container reaper");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        DockerBuilder.DescriptorImpl descriptor = Jenkins.getInstance()
+                .getDescriptorByType(DockerBuilder.DescriptorImpl.class);
+        if (descriptor == null || !descriptor.isReapOrphans()) {
+            return;
+        }
+        long gracePeriod = TimeUnit.MINUTES.toMillis(descriptor.getEffectiveReaperGracePeriod());
+        String controllerFilter = OwnershipLabels.controllerFilter();
+
+        Set<String> checked = new LinkedHashSet<String>();
+        for (Config cfgData : descriptor.getMonitoredConfigs()) {
+            if (isBlank(cfgData.dockerUrlRes) || !checked.add(cfgData.dockerUrlRes)
+                    || DockerHealthMonitor.isUnhealthy(cfgData.dockerUrlRes)) {
+                continue;
+            }
+            Stats stats = STATS.computeIfAbsent(cfgData.dockerUrlRes, Stats::new);
+            try (DockerClientCache.Lease lease = descriptor.acquireDockerClient(cfgData, null)) {
+                DockerClient client = lease.getClient();
+                List<Container> containers = client.listContainersCmd().withShowAll(true)
+                        .withLabelFilter(Collections.singletonList(controllerFilter)).exec();
+                int reaped = 0;
+                for (Container container : containers) {
+                    if (reaped >= BATCH_SIZE) {
+                        listener.getLogger().println("Reached batch size on " + cfgData.dockerUrlRes
+                                + ", remaining orphaned containers are reaped in the next run");
+                        break;
+                    }
+                    if (isOrphaned(container, gracePeriod) && reap(client, container, stats, listener)) {
+                        reaped++;
+                    }
+                }
+                stats.lastRun.set(System.currentTimeMillis());
+            } catch (Exception e) {
+                listener.getLogger().println("Cannot reap containers on " + cfgData.dockerUrlRes + ": " + e.getMessage());
+            }
+        }
+        STATS.keySet().retainAll(checked);
+    }
+
+    /**
+     * @return true if the build which created given container finished at least the grace period ago or was deleted
+     */
+    static boolean isOrphaned(Container container, long gracePeriod) {
+        long now = System.currentTimeMillis();
+        if (container.getCreated() != null && now - TimeUnit.SECONDS.toMillis(container.getCreated()) < gracePeriod) {
+            return false;
+        }
+        Map<String, String> labels = container.getLabels();
+        String jobName = labels == null ? null : labels.get(OwnershipLabels.JOB);
+        String buildNumber = labels == null ? null : labels.get(OwnershipLabels.BUILD);
+        if (jobName == null || buildNumber == null) {
+            return false;
+        }
+
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            Job<?, ?> job = Jenkins.getInstance().getItemByFullName(jobName, Job.class);
+            if (job == null) {
+                // renamed or moved, the labels don't tell where its builds are now
+                return false;
+            }
+            int number = Integer.parseInt(buildNumber);
+            Run<?, ?> run = job.getBuildByNumber(number);
+            if (run == null) {
+                // deleted, unless it's a build of another job which had this name before
+                return number < job.getNextBuildNumber();
+            }
+            return !run.isBuilding() && now - (run.getStartTimeInMillis() + run.getDuration()) >= gracePeriod;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean reap(DockerClient client, Container container, Stats stats, TaskListener listener) {
+        String id = container.getId();
+        try {
+            InspectContainerResponse info = client.inspectContainerCmd(id).withSize(true).exec();
+            if (Boolean.TRUE.equals(info.getState().getRunning())) {
+                try {
+                    client.stopContainerCmd(id).withTimeout(STOP_TIMEOUT).exec();
+                    stats.stopped.incrementAndGet();
+                } catch (NotModifiedException e) {
+                    // stopped meanwhile
+                }
+            }
+            client.removeContainerCmd(id).withForce(true).exec();
+            stats.reaped.incrementAndGet();
+            if (info.getSizeRw() != null) {
+                stats.bytesReclaimed.addAndGet(info.getSizeRw());
+            }
+            listener.getLogger().println("Reaped orphaned container " + id + " of "
+                    + container.getLabels().get(OwnershipLabels.JOB) + " #"
+                    + container.getLabels().get(OwnershipLabels.BUILD));
+            return true;
+        } catch (NotFoundException e) {
+            // removed meanwhile
+            return false;
+        } catch (Exception e) {
+            stats.failed.incrementAndGet();
+            LOGGER.warning("Cannot reap orphaned container " + id + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return reaper statistics of the configured Docker servers in order of configuration
+     */
+    public static List<Stats> getStats(List<Config> configs) {
+        List<Stats> reports = new ArrayList<Stats>();
+        for (Config cfgData : configs) {
+            Stats stats = cfgData.dockerUrlRes == null ? null : STATS.get(cfgData.dockerUrlRes);
+            if (stats != null && !reports.contains(stats)) {
+                reports.add(stats);
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Containers reaped on one Docker server since the controller started.
+     */
+    public static final class Stats {
+
+        private final String dockerUrl;
+        final AtomicLong reaped = new AtomicLong();
+        final AtomicLong stopped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong bytesReclaimed = new AtomicLong();
+        final AtomicLong lastRun = new AtomicLong();
+
+        Stats(String dockerUrl) {
+            this.dockerUrl = dockerUrl;
+        }
+
+        public String getDockerUrl() {
+            return dockerUrl;
+        }
+
+        /**
+         * @return number of removed containers
+         */
+        public long getReaped() {
+            return reaped.get();
+        }
+
+        /**
+         * @return number of removed containers which were still running
+         */
+        public long getStopped() {
+            return stopped.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        /**
+         * @return size of the writable layers of the removed containers in bytes
+         */
+        public long getBytesReclaimed() {
+            return bytesReclaimed.get();
+        }
+
+        public String getBytesReclaimedText() {
+            return Functions.humanReadableByteSize(getBytesReclaimed());
+        }
+
+        /**
+         * @return time of the last run in milliseconds since the epoch, 0 if there was none
+         */
+        public long getLastRun() {
+            return lastRun.get();
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(DockerContainerReaper.class.getName());
+}
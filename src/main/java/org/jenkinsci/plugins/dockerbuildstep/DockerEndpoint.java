@@ -0,0 +1,80 @@
+package org.jenkinsci.plugins.dockerbuildstep;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.Arrays;
+
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+
+/**
+ * Additional Docker server which containers and images can be placed on. The server used for a build is chosen by
+ * {@link org.jenkinsci.plugins.dockerbuildstep.cmd.CreateContainerCommand} or
+ * {@link org.jenkinsci.plugins.dockerbuildstep.cmd.CreateImageCommand} according to the current load of the servers
+ * and their weight, and all following commands of the build use the same server.
+ */
+public class DockerEndpoint extends AbstractDescribableImpl<DockerEndpoint> {
+
+    private final String url;
+    private final String version;
+    private final String certPath;
+    private final int weight;
+    private final String labels;
+
+    @DataBoundConstructor
+    public DockerEndpoint(String url, String version, String certPath, int weight, String labels) {
+        this.url = url;
+        this.version = version;
+        this.certPath = certPath;
+        this.weight = weight;
+        this.labels = labels;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getCertPath() {
+        return certPath;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return weight used for placement, servers with unset weight count as 1
+     */
+    public int getEffectiveWeight() {
+        return weight > 0 ? weight : 1;
+    }
+
+    public String getLabels() {
+        return labels;
+    }
+
+    /**
+     * @return true if the label is blank or it is one of the whitespace separated labels of this endpoint
+     */
+    public boolean hasLabel(String label) {
+        if (isBlank(label)) {
+            return true;
+        }
+        return labels != null && Arrays.asList(labels.trim().split("\\s+")).contains(label.trim());
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<DockerEndpoint> {
+        @Override
+        public String getDisplayName() {
+            return "Docker endpoint";
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.jenkinsci.plugins.dockerbuildstep;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DaemonHealth;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+
+/**
+ * Periodically pings the global Docker server and all additional Docker endpoints from the controller and keeps their
+ * {@link DaemonHealth}. Builds use it to fail immediately when their Docker server is down instead of waiting for
+ * connection and response timeouts.
+ */
+@Extension
+public class DockerHealthMonitor extends AsyncPeriodicWork {
+
+    public static final long RECURRENCE_PERIOD = Long.getLong(DockerHealthMonitor.class.getName()
+            + ".recurrencePeriod", TimeUnit.SECONDS.toMillis(30));
+
+    /**
+     * Connect and response timeout of a single ping in seconds, so that a hung daemon doesn't stall the checks.
+     */
+    public static final int PING_TIMEOUT = 10;
+
+    private static final ConcurrentMap<String, DaemonHealth> HEALTH = new ConcurrentHashMap<String, DaemonHealth>();
+
+    public DockerHealthMonitor() {
+        super("Docker daemon health monitor");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        DockerBuilder.DescriptorImpl descriptor = Jenkins.getInstance()
+                .getDescriptorByType(DockerBuilder.DescriptorImpl.class);
+        if (descriptor == null) {
+            return;
+        }
+
+        Set<String> checked = new LinkedHashSet<String>();
+        for (Config cfgData : descriptor.getMonitoredConfigs()) {
+            if (isBlank(cfgData.dockerUrlRes) || !checked.add(cfgData.dockerUrlRes)) {
+                continue;
+            }
+            DaemonHealth health = HEALTH.computeIfAbsent(cfgData.dockerUrlRes, DaemonHealth::new);
+            Config pingCfg = new Config(cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, 1,
+                    PING_TIMEOUT, PING_TIMEOUT);
+            long start = System.nanoTime();
+            try (DockerClientCache.Lease lease = descriptor.acquireDockerClient(pingCfg, null)) {
+                lease.getClient().pingCmd().exec();
+                health.recordSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                String error = e.getMessage() != null ? e.getMessage() : e.toString();
+                health.recordFailure(error);
+                listener.getLogger().println("Docker daemon " + cfgData.dockerUrlRes + " didn't respond: " + error);
+                if (health.isOpen()) {
+                    LOGGER.warning("Docker daemon " + cfgData.dockerUrlRes + " failed "
+                            + health.getConsecutiveFailures() + " health checks in a row: " + error);
+                }
+            }
+        }
+        // forget servers which were removed from the configuration
+        HEALTH.keySet().retainAll(checked);
+    }
+
+    /**
+     * @return health of given Docker server, <code>null</code> if it isn't monitored
+     */
+    public static DaemonHealth getHealth(String dockerUrl) {
+        return dockerUrl == null ? null : HEALTH.get(dockerUrl);
+    }
+
+    /**
+     * @return true if recent health checks of given Docker server failed and commands shouldn't be attempted
+     */
+    public static boolean isUnhealthy(String dockerUrl) {
+        DaemonHealth health = getHealth(dockerUrl);
+        return health != null && health.isOpen();
+    }
+
+    /**
+     * @return health of the monitored Docker servers in order of configuration
+     */
+    public static List<DaemonHealth> getHealthReports(List<Config> configs) {
+        List<DaemonHealth> reports = new ArrayList<DaemonHealth>();
+        for (Config cfgData : configs) {
+            DaemonHealth health = getHealth(cfgData.dockerUrlRes);
+            if (health != null && !reports.contains(health)) {
+                reports.add(health);
+            }
+        }
+        return reports;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(DockerHealthMonitor.class.getName());
+}
@@ -0,0 +1,128 @@
+package org.jenkinsci.plugins.dockerbuildstep;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.LatencyRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.LatencyRemoteCallable.Latency;
+import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
+import org.kohsuke.stapler.AncestorInPath;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.NodeProperty;
+import hudson.slaves.NodePropertyDescriptor;
+import hudson.util.FormValidation;
+import jenkins.model.Jenkins;
+
+/**
+ * Docker server local to a node, e.g. <code>unix:///var/run/docker.sock</code>, which builds running on the node use
+ * instead of the global one. Container output and API calls then don't have to cross the network.
+ *
+ * Nodes without this property can set the server by <code>DOCKER_BUILD_STEP_URL</code>,
+ * <code>DOCKER_BUILD_STEP_VERSION</code> and <code>DOCKER_BUILD_STEP_CERT_PATH</code> environment variables.
+ */
+public class DockerNodeProperty extends NodeProperty<Node> {
+
+    public static final String URL_ENV_VAR = "DOCKER_BUILD_STEP_URL";
+    public static final String VERSION_ENV_VAR = "DOCKER_BUILD_STEP_VERSION";
+    public static final String CERT_PATH_ENV_VAR = "DOCKER_BUILD_STEP_CERT_PATH";
+
+    private final String dockerUrl;
+    private final String dockerVersion;
+    private final String dockerCertPath;
+
+    @DataBoundConstructor
+    public DockerNodeProperty(String dockerUrl, String dockerVersion, String dockerCertPath) {
+        this.dockerUrl = dockerUrl;
+        this.dockerVersion = dockerVersion;
+        this.dockerCertPath = dockerCertPath;
+    }
+
+    public String getDockerUrl() {
+        return dockerUrl;
+    }
+
+    public String getDockerVersion() {
+        return dockerVersion;
+    }
+
+    public String getDockerCertPath() {
+        return dockerCertPath;
+    }
+
+    /**
+     * @return Docker server local to the node the build runs on, <code>null</code> if there is none
+     */
+    public static DockerNodeProperty forBuild(AbstractBuild<?, ?> build) {
+        if (build == null) {
+            return null;
+        }
+        Node node = build.getBuiltOn();
+        DockerNodeProperty property = node == null ? null : node.getNodeProperty(DockerNodeProperty.class);
+        if (property != null && !isBlank(property.getDockerUrl())) {
+            return property;
+        }
+
+        String url = Resolver.buildEnvVar(build, URL_ENV_VAR);
+        if (isBlank(url)) {
+            return null;
+        }
+        return new DockerNodeProperty(url, Resolver.buildEnvVar(build, VERSION_ENV_VAR),
+                Resolver.buildEnvVar(build, CERT_PATH_ENV_VAR));
+    }
+
+    @Extension
+    public static class DescriptorImpl extends NodePropertyDescriptor {
+
+        /**
+         * Number of pings used to measure the latency of a Docker server.
+         */
+        public static final int LATENCY_SAMPLES = 10;
+
+        @Override
+        public String getDisplayName() {
+            return "Docker server local to this node";
+        }
+
+        /**
+         * Compares latency of the node-local and the global Docker server as seen from the node.
+         */
+        @RequirePOST
+        public FormValidation doMeasureLatency(@AncestorInPath Computer computer, @QueryParameter String dockerUrl,
+                @QueryParameter String dockerVersion, @QueryParameter String dockerCertPath) {
+            if (computer == null) {
+                return FormValidation.error("Latency can be measured only for an existing node");
+            }
+            computer.checkPermission(Computer.CONFIGURE);
+            VirtualChannel channel = computer.getChannel();
+            if (channel == null) {
+                return FormValidation.error("Node " + computer.getDisplayName() + " is offline");
+            }
+
+            DockerBuilder.DescriptorImpl builderDescriptor = Jenkins.getInstance()
+                    .getDescriptorByType(DockerBuilder.DescriptorImpl.class);
+            Config local = builderDescriptor.getConfig(new DockerNodeProperty(dockerUrl, dockerVersion,
+                    dockerCertPath), null);
+            Config global = builderDescriptor.getConfig((AbstractBuild<?, ?>) null);
+            List<Config> servers = Arrays.asList(local, global);
+            try {
+                List<Latency> latencies = channel.call(new LatencyRemoteCallable(servers, LATENCY_SAMPLES));
+                return FormValidation.ok(String.format("Median of %d API calls from %s: node-local server %s: %s, "
+                        + "global server %s: %s", LATENCY_SAMPLES, computer.getDisplayName(), local.dockerUrlRes,
+                        latencies.get(0), global.dockerUrlRes, latencies.get(1)));
+            } catch (Exception e) {
+                return FormValidation.error("Cannot measure latency: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -14,19 +14,20 @@ import hudson.tasks.Publisher;
 import hudson.tasks.Recorder;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.cmd.RemoveCommand;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.StopCommand;
+import org.apache.commons.lang3.StringUtils;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.RemoveAllCommand;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.StopAllCommand;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.TeardownCommand;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels.Scope;
+import org.jenkinsci.plugins.dockerbuildstep.util.ResolutionContext;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-import com.github.dockerjava.api.exception.NotFoundException;
-import com.github.dockerjava.api.exception.NotModifiedException;
-
 /**
  * Post build step which stops and removes the Docker container. Use to cleanup container(s) in case of a build failure.
+ * Besides listed containers, it can clean up all containers created by the job or build, which the Docker server
+ * selects by their labels.
  * 
  */
 @Extension
@@ -51,12 +52,27 @@ public class DockerPostBuilder extends BuildStepDescriptor<Publisher> {
         private final String containerIds;
         private final boolean removeVolumes;
         private final boolean force;
+        private final Scope scope;
+        private final int stopTimeout;
 
         @DataBoundConstructor
-        public DockerPostBuildStep(String containerIds, boolean removeVolumes, boolean force) {
+        public DockerPostBuildStep(String containerIds, boolean removeVolumes, boolean force, Scope scope,
+                int stopTimeout) {
             this.containerIds = containerIds;
             this.removeVolumes = removeVolumes;
             this.force = force;
+            this.scope = scope;
+            this.stopTimeout = stopTimeout;
+        }
+
+        @Deprecated
+        public DockerPostBuildStep(String containerIds, boolean removeVolumes, boolean force, Scope scope) {
+            this(containerIds, removeVolumes, force, scope, 0);
+        }
+
+        @Deprecated
+        public DockerPostBuildStep(String containerIds, boolean removeVolumes, boolean force) {
+            this(containerIds, removeVolumes, force, Scope.ALL);
         }
 
         public BuildStepMonitor getRequiredMonitorService() {
@@ -75,26 +91,37 @@ public class DockerPostBuilder extends BuildStepDescriptor<Publisher> {
             return force;
         }
 
+        /**
+         * @return seconds Docker waits for each container to stop before killing it, 0 means the daemon default
+         */
+        public int getStopTimeout() {
+            return stopTimeout;
+        }
+
+        /**
+         * @return whose containers to clean up besides the listed ones, {@link Scope#ALL} for none
+         */
+        public Scope getScope() {
+            return scope;
+        }
+
         @Override
         public boolean perform(@SuppressWarnings("rawtypes") AbstractBuild build, Launcher launcher,
                 BuildListener listener) throws InterruptedException, IOException {
-            ConsoleLogger clog = new ConsoleLogger(listener);
-
-            List<String> ids = Arrays.asList(containerIds.split(","));
-            for (String id : ids) {
-                StopCommand stopCommand = new StopCommand(id);
-                try {
-                    stopCommand.execute(launcher, build, clog);
-                } catch (NotFoundException e) {
-                    clog.logWarn("unable to stop container id " + id + ", container not found!");
-                } catch (NotModifiedException e) {
-                    // ignore, container already stopped
-                }
+            try (ResolutionContext ctx = ResolutionContext.open(build)) {
+                return perform(build, launcher, new ConsoleLogger(listener));
             }
+        }
 
-            RemoveCommand removeCommand = new RemoveCommand(containerIds, true, removeVolumes, force);
-            removeCommand.execute(launcher, build, clog);
-
+        private boolean perform(AbstractBuild<?, ?> build, Launcher launcher, ConsoleLogger clog) throws IOException {
+            if (!StringUtils.isBlank(containerIds)) {
+                new TeardownCommand(containerIds, stopTimeout, 0, removeVolumes, 0).execute(launcher, build, clog);
+            }
+            if (scope != null && scope != Scope.ALL) {
+                new StopAllCommand(scope).execute(launcher, build, clog);
+                new RemoveAllCommand(removeVolumes, force, true, false, false, false, null, null, null, scope)
+                        .execute(launcher, build, clog);
+            }
             return true;
         }
     }
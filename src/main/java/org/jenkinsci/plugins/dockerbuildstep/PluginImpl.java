@@ -1,9 +1,11 @@
 package org.jenkinsci.plugins.dockerbuildstep;
 
+import static hudson.init.InitMilestone.EXTENSIONS_AUGMENTED;
 import static hudson.init.InitMilestone.PLUGINS_STARTED;
 import hudson.Plugin;
 import hudson.init.Initializer;
 import hudson.model.Run;
+import jenkins.model.Jenkins;
 
 public class PluginImpl extends Plugin {
 
@@ -24,4 +26,17 @@ public class PluginImpl extends Plugin {
                  com.github.dockerjava.api.model.Ports.Binding.class);
     }
 
+    /**
+     * Creates the global Docker client in background once the descriptors are loaded, so that unreachable Docker
+     * server doesn't delay the startup.
+     */
+    @Initializer(after=EXTENSIONS_AUGMENTED)
+    public static void initDockerClient() {
+        DockerBuilder.DescriptorImpl descriptor = Jenkins.getInstance()
+                .getDescriptorByType(DockerBuilder.DescriptorImpl.class);
+        if (descriptor != null) {
+            descriptor.initDockerClient();
+        }
+    }
+
 }
@@ -0,0 +1,121 @@
+package org.jenkinsci.plugins.dockerbuildstep.action;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.command.InspectContainerResponse.ContainerState;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.NetworkSettings;
+import com.github.dockerjava.api.model.Ports;
+import com.github.dockerjava.api.model.Ports.Binding;
+
+/**
+ * Information about a container which the plugin actually uses, extracted from the inspect response on the build
+ * node. It's much smaller than the whole inspect response both when sent over the channel and when stored with the
+ * build.
+ */
+public class ContainerInfo implements Serializable {
+
+    private static final long serialVersionUID = 6203466542195634706L;
+
+    private final String id;
+    private final String name;
+    private final String hostName;
+    private final String ipAddress;
+    private final Map<ExposedPort, Binding[]> portBindings;
+    private final String status;
+    private final boolean running;
+    private final Long exitCode;
+    private final String health;
+
+    public ContainerInfo(String id, String name, String hostName, String ipAddress,
+            Map<ExposedPort, Binding[]> portBindings, String status, boolean running, Long exitCode, String health) {
+        this.id = id;
+        this.name = name;
+        this.hostName = hostName;
+        this.ipAddress = ipAddress;
+        this.portBindings = portBindings;
+        this.status = status;
+        this.running = running;
+        this.exitCode = exitCode;
+        this.health = health;
+    }
+
+    public static ContainerInfo from(InspectContainerResponse inspectResp) {
+        String hostName = inspectResp.getConfig() == null ? null : inspectResp.getConfig().getHostName();
+
+        String ipAddress = null;
+        Map<ExposedPort, Binding[]> portBindings = null;
+        NetworkSettings network = inspectResp.getNetworkSettings();
+        if (network != null) {
+            ipAddress = network.getIpAddress();
+            Ports ports = network.getPorts();
+            if (ports != null && ports.getBindings() != null) {
+                portBindings = new LinkedHashMap<ExposedPort, Binding[]>(ports.getBindings());
+            }
+        }
+
+        String status = null;
+        boolean running = false;
+        Long exitCode = null;
+        String health = null;
+        ContainerState state = inspectResp.getState();
+        if (state != null) {
+            status = state.getStatus();
+            running = Boolean.TRUE.equals(state.getRunning());
+            exitCode = state.getExitCodeLong();
+            health = state.getHealth() == null ? null : state.getHealth().getStatus();
+        }
+
+        return new ContainerInfo(inspectResp.getId(), inspectResp.getName(), hostName, ipAddress, portBindings,
+                status, running, exitCode, health);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    /**
+     * @return port bindings, never <code>null</code>
+     */
+    public Map<ExposedPort, Binding[]> getPortBindings() {
+        return portBindings == null ? Collections.<ExposedPort, Binding[]> emptyMap() : portBindings;
+    }
+
+    /**
+     * @return state of the container as reported by Docker, e.g. <code>created</code> or <code>running</code>
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public Long getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * @return health check status, <code>null</code> if the container has no health check
+     */
+    public String getHealth() {
+        return health;
+    }
+}
@@ -176,9 +176,14 @@ public class DockerContainerConsoleAction extends TaskAction implements Serializ
                         super.onError(throwable);
                     }
                 };
-                DockerClient client = ((DockerBuilder.DescriptorImpl) Jenkins.getInstance().getDescriptor(
-                        DockerBuilder.class)).getDockerClient(build, null);
-                client.attachContainerCmd(containerId).withFollowStream(true).withStdOut(true).withStdErr(true).exec(callback).awaitCompletion();
+                // the attach lasts as long as the container runs, so don't use a shared client which can be evicted,
+                // and the container can be silent for a long time, so don't time out waiting for its output
+                DockerBuilder.DescriptorImpl descriptor = (DockerBuilder.DescriptorImpl) Jenkins.getInstance()
+                        .getDescriptor(DockerBuilder.class);
+                try (DockerClient client = descriptor.newDockerClient(descriptor.getConfig(build)
+                        .withoutResponseTimeout(), null)) {
+                    client.attachContainerCmd(containerId).withFollowStream(true).withStdOut(true).withStdErr(true).exec(callback).awaitCompletion();
+                }
             } finally {
                 if (writer != null) {
                     writer.close();
@@ -0,0 +1,32 @@
+package org.jenkinsci.plugins.dockerbuildstep.action;
+
+import hudson.model.InvisibleAction;
+
+/**
+ * Docker server chosen for the build. All Docker commands of the build are executed against this server instead of
+ * the globally configured one.
+ */
+public class DockerEndpointAction extends InvisibleAction {
+
+    private final String dockerUrl;
+    private final String dockerVersion;
+    private final String dockerCertPath;
+
+    public DockerEndpointAction(String dockerUrl, String dockerVersion, String dockerCertPath) {
+        this.dockerUrl = dockerUrl;
+        this.dockerVersion = dockerVersion;
+        this.dockerCertPath = dockerCertPath;
+    }
+
+    public String getDockerUrl() {
+        return dockerUrl;
+    }
+
+    public String getDockerVersion() {
+        return dockerVersion;
+    }
+
+    public String getDockerCertPath() {
+        return dockerCertPath;
+    }
+}
@@ -0,0 +1,57 @@
+package org.jenkinsci.plugins.dockerbuildstep.action;
+
+import hudson.Functions;
+import hudson.model.AbstractBuild;
+import hudson.model.InvisibleAction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.PruneRemoteCallable;
+
+/**
+ * Disk space reclaimed and time spent by the prune calls of a build, shown on the build page.
+ */
+public class DockerPruneAction extends InvisibleAction {
+
+    private final List<PruneRemoteCallable.Result> results = new ArrayList<PruneRemoteCallable.Result>();
+
+    /**
+     * Adds results to the action of given build, creating the action if needed.
+     */
+    public static void record(AbstractBuild<?, ?> build, List<PruneRemoteCallable.Result> results) {
+        synchronized (build) {
+            DockerPruneAction action = build.getAction(DockerPruneAction.class);
+            if (action == null) {
+                action = new DockerPruneAction();
+                build.addAction(action);
+            }
+            action.add(results);
+        }
+    }
+
+    private synchronized void add(List<PruneRemoteCallable.Result> results) {
+        this.results.addAll(results);
+    }
+
+    public synchronized List<PruneRemoteCallable.Result> getResults() {
+        return Collections.unmodifiableList(new ArrayList<PruneRemoteCallable.Result>(results));
+    }
+
+    public synchronized long getSpaceReclaimed() {
+        long total = 0;
+        for (PruneRemoteCallable.Result result : results) {
+            total += result.getSpaceReclaimed();
+        }
+        return total;
+    }
+
+    public String getSpaceReclaimedText() {
+        return Functions.humanReadableByteSize(getSpaceReclaimed());
+    }
+
+    public String format(PruneRemoteCallable.Result result) {
+        return Functions.humanReadableByteSize(result.getSpaceReclaimed());
+    }
+}
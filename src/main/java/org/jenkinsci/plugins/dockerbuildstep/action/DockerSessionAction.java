@@ -0,0 +1,132 @@
+package org.jenkinsci.plugins.dockerbuildstep.action;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.DockerClient;
+
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+/**
+ * Docker state shared by all Docker steps of a running build: the resolved connection settings, a client held for
+ * the whole build and information about the containers created or started by the build. It's created by the first
+ * step which needs it and torn down when the build completes. Nothing of it is persisted with the build.
+ */
+public class DockerSessionAction extends InvisibleAction {
+
+    private transient Config config;
+    private transient Config leaseConfig;
+    private transient DockerClientCache.Lease lease;
+    private transient Map<String, ContainerInfo> containers;
+
+    /**
+     * @return session of given build, <code>null</code> if the build isn't running
+     */
+    public static DockerSessionAction of(AbstractBuild<?, ?> build) {
+        if (build == null || !build.isBuilding()) {
+            return null;
+        }
+        synchronized (build) {
+            DockerSessionAction session = build.getAction(DockerSessionAction.class);
+            if (session == null) {
+                session = new DockerSessionAction();
+                build.addAction(session);
+            }
+            return session;
+        }
+    }
+
+    /**
+     * @return connection settings resolved by a previous step, <code>null</code> if they weren't resolved yet
+     */
+    public synchronized Config getConfig() {
+        return config;
+    }
+
+    public synchronized void setConfig(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Forgets the resolved connection settings, e.g. when another Docker server was chosen for the build.
+     */
+    public synchronized void reset() {
+        config = null;
+    }
+
+    /**
+     * @return client for given settings, which is kept open until the build completes
+     */
+    public synchronized DockerClient getClient(Config cfgData, Supplier<DockerClientCache.Lease> factory) {
+        if (lease == null || !cfgData.equals(leaseConfig)) {
+            release();
+            lease = factory.get();
+            leaseConfig = cfgData;
+        }
+        return lease.getClient();
+    }
+
+    public synchronized void recordContainer(ContainerInfo info) {
+        if (containers == null) {
+            containers = new ConcurrentHashMap<String, ContainerInfo>();
+        }
+        containers.put(info.getId(), info);
+    }
+
+    /**
+     * @return last known information about given container created or started by the build, <code>null</code> if
+     *         there is none
+     */
+    public synchronized ContainerInfo getContainer(String id) {
+        return containers == null ? null : containers.get(id);
+    }
+
+    /**
+     * @return containers created or started by the build
+     */
+    public synchronized Collection<ContainerInfo> getContainers() {
+        return containers == null ? Collections.<ContainerInfo> emptyList()
+                : new ArrayList<ContainerInfo>(containers.values());
+    }
+
+    synchronized void close() {
+        release();
+        config = null;
+        containers = null;
+    }
+
+    private void release() {
+        if (lease != null) {
+            lease.close();
+            lease = null;
+            leaseConfig = null;
+        }
+    }
+
+    /**
+     * Tears down the session when the build completes.
+     */
+    @Extension
+    public static class SessionListener extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, TaskListener listener) {
+            DockerSessionAction session = run.getAction(DockerSessionAction.class);
+            if (session != null) {
+                session.close();
+                run.removeAction(session);
+            }
+        }
+    }
+}
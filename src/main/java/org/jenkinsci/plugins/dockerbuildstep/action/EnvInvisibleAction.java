@@ -9,7 +9,6 @@ import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
 
 import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.model.ExposedPort;
-import com.github.dockerjava.api.model.Ports;
 import com.github.dockerjava.api.model.Ports.Binding;
 
 /**
@@ -21,44 +20,66 @@ import com.github.dockerjava.api.model.Ports.Binding;
  */
 public class EnvInvisibleAction extends InvisibleAction {
 
+    private ContainerInfo info;
+
+    /**
+     * Whole inspect response, stored by older versions of the plugin. Converted to {@link #info} when the build is
+     * loaded.
+     */
+    @Deprecated
     private InspectContainerResponse containerInfo;
 
     public EnvInvisibleAction() {
     }
 
+    public EnvInvisibleAction(ContainerInfo info) {
+        this.info = info;
+    }
+
+    /**
+     * @deprecated use {@link #EnvInvisibleAction(ContainerInfo)}
+     */
+    @Deprecated
     public EnvInvisibleAction(InspectContainerResponse containerInfo) {
-        this.containerInfo = containerInfo;
+        this(ContainerInfo.from(containerInfo));
+    }
+
+    protected Object readResolve() {
+        if (info == null && containerInfo != null) {
+            info = ContainerInfo.from(containerInfo);
+        }
+        containerInfo = null;
+        return this;
     }
 
-    public InspectContainerResponse getContainerInfo() {
-        return containerInfo;
+    public ContainerInfo getInfo() {
+        return info;
     }
 
-    public void setContainerInfo(InspectContainerResponse containerInfo) {
-        this.containerInfo = containerInfo;
+    public void setInfo(ContainerInfo info) {
+        this.info = info;
     }
 
     // convenient shortcut methods
 
     public String getId() {
-        return containerInfo.getId();
+        return info.getId();
     }
 
     public String getHostName() {
-        return containerInfo.getConfig().getHostName();
+        return info.getHostName();
     }
 
     public String getIpAddress() {
-        return containerInfo.getNetworkSettings().getIpAddress();
+        return info.getIpAddress();
     }
     
     public boolean hasPortBindings() {
-        Ports ports = containerInfo.getNetworkSettings().getPorts(); 
-        return  ((ports !=  null) && (ports.getBindings() != null) && (!ports.getBindings().isEmpty()));
+        return !info.getPortBindings().isEmpty();
     }
     
     public Map<ExposedPort, Binding[]> getPortBindings() {
-        return containerInfo.getNetworkSettings().getPorts().getBindings();
+        return info.getPortBindings();
     }
 
 }
@@ -4,10 +4,7 @@ import hudson.AbortException;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.CommitRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -71,9 +68,8 @@ public class CommitCommand extends DockerCommand {
         String imageId;
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
             
-            imageId = launcher.getChannel().call(new CommitRemoteCallable(cfgData, descriptor, containerIdRes, repoRes, tagRes, runCmdRes));
+            imageId = launcher.getChannel().call(new CommitRemoteCallable(cfgData, containerIdRes, repoRes, tagRes, runCmdRes));
         } catch (Exception e) {
             console.logError("Failed to commit image: " + e.getMessage());
             e.printStackTrace();
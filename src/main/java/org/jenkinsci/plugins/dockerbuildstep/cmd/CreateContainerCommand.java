@@ -1,20 +1,13 @@
 package org.jenkinsci.plugins.dockerbuildstep.cmd;
 
 import com.github.dockerjava.api.exception.DockerException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.github.dockerjava.api.command.InspectContainerResponse;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
 import hudson.util.FormValidation;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.action.EnvInvisibleAction;
+import org.jenkinsci.plugins.dockerbuildstep.action.ContainerInfo;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.CreateContainerRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
 import org.jenkinsci.plugins.dockerbuildstep.util.*;
@@ -48,12 +41,22 @@ public class CreateContainerCommand extends DockerCommand {
     private final String bindMounts;
     private final boolean privileged;
     private final boolean alwaysRestart;
+    private final String endpointLabel;
 
-    @DataBoundConstructor
+    @Deprecated
     public CreateContainerCommand(String image, String command, String hostName, String containerName, String envVars,
                                   String links, String exposedPorts, String cpuShares, String memoryLimit, String dns,
                                   String extraHosts, String networkMode, boolean publishAllPorts, String portBindings,
                                   String bindMounts, boolean privileged, boolean alwaysRestart) throws IllegalArgumentException {
+        this(image, command, hostName, containerName, envVars, links, exposedPorts, cpuShares, memoryLimit, dns,
+                extraHosts, networkMode, publishAllPorts, portBindings, bindMounts, privileged, alwaysRestart, null);
+    }
+
+    @DataBoundConstructor
+    public CreateContainerCommand(String image, String command, String hostName, String containerName, String envVars,
+                                  String links, String exposedPorts, String cpuShares, String memoryLimit, String dns,
+                                  String extraHosts, String networkMode, boolean publishAllPorts, String portBindings,
+                                  String bindMounts, boolean privileged, boolean alwaysRestart, String endpointLabel) throws IllegalArgumentException {
         this.image = image;
         this.command = command;
         this.hostName = hostName;
@@ -71,6 +74,7 @@ public class CreateContainerCommand extends DockerCommand {
         this.bindMounts = bindMounts;
         this.privileged = privileged;
         this.alwaysRestart = alwaysRestart;
+        this.endpointLabel = endpointLabel;
     }
 
     public String getImage() {
@@ -149,6 +153,15 @@ public class CreateContainerCommand extends DockerCommand {
         return alwaysRestart;
     }
 
+    public String getEndpointLabel() {
+        return endpointLabel;
+    }
+
+    @Override
+    public boolean placesOnEndpoint(AbstractBuild<?, ?> build) {
+        return needsPlacement(build);
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
             throws DockerException {
@@ -227,18 +240,13 @@ public class CreateContainerCommand extends DockerCommand {
         // Call Docker
 
         try {
+            placeOnEndpoint(launcher, build, endpointLabel, console);
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
 
-            String inspectRespSerialized = launcher.getChannel().call(new CreateContainerRemoteCallable(cfgData, descriptor, imageRes, commandRes, hostNameRes, containerNameRes, linksRes, envVarsRes, exposedPortsRes, cpuSharesRes, memoryLimitRes, dnsRes, extraHostsRes, networkModeRes, portBindingsRes, bindMountsRes, alwaysRestart, publishAllPorts, privileged));
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            InspectContainerResponse inspectResp = mapper.readValue(inspectRespSerialized, InspectContainerResponse.class);
+            ContainerInfo info = launcher.getChannel().call(new CreateContainerRemoteCallable(cfgData, imageRes, commandRes, hostNameRes, containerNameRes, linksRes, envVarsRes, exposedPortsRes, cpuSharesRes, memoryLimitRes, dnsRes, extraHostsRes, networkModeRes, portBindingsRes, bindMountsRes, alwaysRestart, publishAllPorts, privileged, OwnershipLabels.forBuild(build)));
 
-            console.logInfo("created container id " + inspectResp.getId() + " (from image " + imageRes + ")");
-            EnvInvisibleAction envAction = new EnvInvisibleAction(inspectResp);
-            build.addAction(envAction);
+            console.logInfo("created container id " + info.getId() + " (from image " + imageRes + ")");
+            exportContainer(build, info);
         } catch (Exception e) {
             console.logError("Failed to create container");
             e.printStackTrace();
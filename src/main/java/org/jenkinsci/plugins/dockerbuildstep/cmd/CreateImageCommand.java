@@ -4,10 +4,7 @@ import com.github.dockerjava.api.exception.DockerException;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.CreateImageRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -32,9 +29,15 @@ public class CreateImageCommand extends DockerCommand {
     private final boolean noCache;
     private final boolean rm;
     private final String buildArgs;
+    private final String endpointLabel;
     
-    @DataBoundConstructor
+    @Deprecated
     public CreateImageCommand(String dockerFolder, String imageTag, String dockerFile, boolean pull, boolean noCache, boolean rm, String buildArgs) {
+        this(dockerFolder, imageTag, dockerFile, pull, noCache, rm, buildArgs, null);
+    }
+
+    @DataBoundConstructor
+    public CreateImageCommand(String dockerFolder, String imageTag, String dockerFile, boolean pull, boolean noCache, boolean rm, String buildArgs, String endpointLabel) {
         this.dockerFolder = dockerFolder;
         this.imageTag = imageTag;
         this.dockerFile = dockerFile;
@@ -42,6 +45,7 @@ public class CreateImageCommand extends DockerCommand {
         this.noCache = noCache;
         this.buildArgs = buildArgs;
         this.rm = rm;
+        this.endpointLabel = endpointLabel;
     }
 
     public String getDockerFolder() {
@@ -72,6 +76,15 @@ public class CreateImageCommand extends DockerCommand {
         return buildArgs;
     }
 
+    public String getEndpointLabel() {
+        return endpointLabel;
+    }
+
+    @Override
+    public boolean placesOnEndpoint(AbstractBuild<?, ?> build) {
+        return needsPlacement(build);
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, final ConsoleLogger console)
             throws DockerException {
@@ -109,10 +122,10 @@ public class CreateImageCommand extends DockerCommand {
 
         String imageId = null;
         try {
+            placeOnEndpoint(launcher, build, endpointLabel, console);
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
 
-            imageId = launcher.getChannel().call(new CreateImageRemoteCallable(console.getListener(), cfgData, descriptor, expandedDockerFolder, expandedImageTag, dockerFileRes, buildArgsMap, pull, noCache, rm));
+            imageId = launcher.getChannel().call(new CreateImageRemoteCallable(console.getListener(), cfgData, expandedDockerFolder, expandedImageTag, dockerFileRes, buildArgsMap, pull, noCache, rm));
         } catch (Exception e) {
             console.logError("Failed to create docker image: " + e.getMessage());
             e.printStackTrace();
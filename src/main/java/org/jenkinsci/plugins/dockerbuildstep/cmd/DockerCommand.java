@@ -10,18 +10,33 @@ import hudson.model.Descriptor;
 import hudson.model.Job;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 import jenkins.model.Jenkins;
 
-import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.io.Charsets;
-import org.jenkinsci.plugins.docker.commons.credentials.DockerRegistryToken;
 import org.jenkinsci.plugins.docker.commons.credentials.DockerRegistryEndpoint;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.DockerCredConfig;
+import org.jenkinsci.plugins.dockerbuildstep.DockerEndpoint;
+import org.jenkinsci.plugins.dockerbuildstep.DockerHealthMonitor;
+import org.jenkinsci.plugins.dockerbuildstep.action.ContainerInfo;
 import org.jenkinsci.plugins.dockerbuildstep.action.DockerContainerConsoleAction;
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerEndpointAction;
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerSessionAction;
+import org.jenkinsci.plugins.dockerbuildstep.action.EnvInvisibleAction;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.EndpointLoadRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.EndpointLoadRemoteCallable.Load;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.AuthConfigCache;
+import org.jenkinsci.plugins.dockerbuildstep.util.EndpointSelector;
+import org.jenkinsci.plugins.dockerbuildstep.util.RemoteCallPipeline;
+import org.jenkinsci.plugins.dockerbuildstep.util.ResolutionContext;
+import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
@@ -29,7 +44,6 @@ import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredenti
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.exception.DockerException;
 import com.github.dockerjava.api.model.AuthConfig;
-import com.google.common.base.Strings;
 
 /**
  * Parent class of all Docker commands.
@@ -65,23 +79,12 @@ public abstract class DockerCommand implements Describable<DockerCommand>, Exten
         return this;
     }
 
+    /**
+     * @return credentials of the configured registry, <code>null</code> if there are none. Credentials are cached
+     *         for a short time, see {@link AuthConfigCache}.
+     */
     public AuthConfig getAuthConfig(Job<?, ?> project) {
-        if (dockerRegistryEndpoint == null || Strings.isNullOrEmpty(dockerRegistryEndpoint.getCredentialsId())) {
-            return null;
-        }
-
-        AuthConfig authConfig = new AuthConfig();
-        authConfig.withRegistryAddress(dockerRegistryEndpoint.getUrl());
-        DockerRegistryToken token = this.dockerRegistryEndpoint.getToken(project);
-        if (token != null) {
-            String credentials = new String(Base64.decodeBase64(token.getToken()), Charsets.UTF_8);
-            String[] usernamePassword = credentials.split(":");
-            authConfig.withUsername(usernamePassword[0]);
-            authConfig.withPassword(usernamePassword[1]);
-            authConfig.withEmail(token.getEmail());
-        }
-
-        return authConfig;
+        return AuthConfigCache.get(project, dockerRegistryEndpoint);
     }
 
     public static final CredentialsMatcher CREDENTIALS_MATCHER = CredentialsMatchers.anyOf(CredentialsMatchers
@@ -105,6 +108,205 @@ public abstract class DockerCommand implements Describable<DockerCommand>, Exten
                 .getConfig(build);
     }
 
+    /**
+     * @return true if the command chooses a Docker server for given build when executed, see
+     *         {@link #placeOnEndpoint(Launcher, AbstractBuild, String, ConsoleLogger)}
+     */
+    public boolean placesOnEndpoint(AbstractBuild<?, ?> build) {
+        return false;
+    }
+
+    /**
+     * @return true if given build has no Docker server chosen yet, but there are additional servers to choose from
+     */
+    protected static boolean needsPlacement(AbstractBuild<?, ?> build) {
+        DockerBuilder.DescriptorImpl descriptor = (DockerBuilder.DescriptorImpl) Jenkins.getInstance()
+                .getDescriptor(DockerBuilder.class);
+        return !descriptor.getEndpoints().isEmpty() && build.getAction(DockerEndpointAction.class) == null;
+    }
+
+    /**
+     * Chooses the least loaded of the additional Docker servers having given label and records it in the build, so
+     * that this and all following commands of the build use it. Does nothing if there are no additional servers or if
+     * a server was already chosen for the build.
+     */
+    protected static void placeOnEndpoint(Launcher launcher, AbstractBuild<?, ?> build, String label,
+            ConsoleLogger console) {
+        DockerBuilder.DescriptorImpl descriptor = (DockerBuilder.DescriptorImpl) Jenkins.getInstance()
+                .getDescriptor(DockerBuilder.class);
+        if (!needsPlacement(build)) {
+            return;
+        }
+
+        String labelRes = Resolver.buildVar(build, label);
+        List<Config> candidates = new ArrayList<Config>();
+        List<Integer> weights = new ArrayList<Integer>();
+        List<Integer> inFlight = new ArrayList<Integer>();
+        for (DockerEndpoint endpoint : descriptor.getEndpoints()) {
+            if (endpoint.hasLabel(labelRes)) {
+                Config cfgData = descriptor.getConfig(endpoint, build);
+                if (DockerHealthMonitor.isUnhealthy(cfgData.dockerUrlRes)) {
+                    console.logWarn("Docker endpoint " + cfgData.dockerUrlRes + " is unhealthy, skipping it");
+                    continue;
+                }
+                candidates.add(cfgData);
+                weights.add(endpoint.getEffectiveWeight());
+                inFlight.add(EndpointSelector.inFlight(cfgData.dockerUrlRes));
+            }
+        }
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No healthy Docker endpoint has label " + labelRes);
+        }
+
+        List<Load> loads;
+        try {
+            loads = launcher.getChannel().call(new EndpointLoadRemoteCallable(candidates));
+        } catch (Exception e) {
+            console.logError("failed to get load of Docker endpoints");
+            e.printStackTrace();
+            throw new IllegalArgumentException(e);
+        }
+
+        for (int i = 0; i < loads.size(); i++) {
+            if (!loads.get(i).isReachable()) {
+                console.logWarn("Docker endpoint " + candidates.get(i).dockerUrlRes + " is not reachable: "
+                        + loads.get(i).getError());
+            }
+        }
+        int chosen = EndpointSelector.choose(loads, weights, inFlight);
+        if (chosen < 0) {
+            throw new IllegalArgumentException("None of the Docker endpoints is reachable");
+        }
+
+        Config cfgData = candidates.get(chosen);
+        build.addAction(new DockerEndpointAction(cfgData.dockerUrlRes, cfgData.dockerVersionRes,
+                cfgData.dockerCertPathRes));
+        DockerSessionAction session = DockerSessionAction.of(build);
+        if (session != null) {
+            session.reset();
+        }
+        EndpointSelector.moveTo(cfgData.dockerUrlRes);
+        console.logInfo("placed build on Docker endpoint " + cfgData.dockerUrlRes + " ("
+                + loads.get(chosen).getRunningContainers() + " running containers)");
+    }
+
+    /**
+     * Creates pipeline for sending per-container calls to the build node in parallel, limited by the global setting.
+     */
+    protected static <V> RemoteCallPipeline<V> newPipeline(Launcher launcher) {
+        return newPipeline(launcher, 0);
+    }
+
+    /**
+     * Creates pipeline for sending per-container calls to the build node in parallel.
+     *
+     * @param window
+     *            maximum number of calls in flight, the global setting is used if it's not positive
+     */
+    protected static <V> RemoteCallPipeline<V> newPipeline(Launcher launcher, int window) {
+        return new RemoteCallPipeline<V>(launcher.getChannel(), window > 0 ? window
+                : ((DockerBuilder.DescriptorImpl) Jenkins.getInstance().getDescriptor(DockerBuilder.class))
+                        .getEffectiveMaxInFlightCalls());
+    }
+
+    /**
+     * @return given container IDs trimmed, without blank ones
+     */
+    protected static List<String> trimIds(List<String> ids) {
+        List<String> trimmed = new ArrayList<String>();
+        for (String id : ids) {
+            if (!id.trim().isEmpty()) {
+                trimmed.add(id.trim());
+            }
+        }
+        return trimmed;
+    }
+
+    /**
+     * Stops, kills, restarts or tears down given containers concurrently on the build node and logs the outcome and
+     * timing for each of them.
+     *
+     * @param stopTimeout
+     *            seconds the daemon waits for each container to stop before killing it, daemon default if not positive
+     * @param deadline
+     *            seconds after which containers still stopping are killed, no deadline if not positive
+     * @param parallelism
+     *            maximum number of containers handled at the same time, the global setting if not positive
+     * @return number of containers which failed
+     */
+    protected static int stopContainers(Launcher launcher, Config cfgData, StopContainersRemoteCallable.Mode mode,
+            List<String> ids, int stopTimeout, int deadline, int parallelism, ConsoleLogger console) throws Exception {
+        return stopContainers(launcher, cfgData, mode, ids, stopTimeout, deadline, parallelism, false, console);
+    }
+
+    /**
+     * Same as {@link #stopContainers(Launcher, Config, StopContainersRemoteCallable.Mode, List, int, int, int,
+     * ConsoleLogger)}, teardown removes also the volumes of the containers if <code>removeVolumes</code> is set.
+     */
+    protected static int stopContainers(Launcher launcher, Config cfgData, StopContainersRemoteCallable.Mode mode,
+            List<String> ids, int stopTimeout, int deadline, int parallelism, boolean removeVolumes,
+            ConsoleLogger console) throws Exception {
+        List<String> trimmed = trimIds(ids);
+        int window = parallelism > 0 ? parallelism : ((DockerBuilder.DescriptorImpl) Jenkins.getInstance()
+                .getDescriptor(DockerBuilder.class)).getEffectiveMaxInFlightCalls();
+        List<StopContainersRemoteCallable.Result> results = launcher.getChannel().call(
+                new StopContainersRemoteCallable(cfgData, mode, trimmed, stopTimeout, deadline, window,
+                        removeVolumes));
+
+        String verb;
+        String done;
+        switch (mode) {
+        case STOP:
+            verb = "stop";
+            done = "stopped";
+            break;
+        case KILL:
+            verb = "kill";
+            done = "killed";
+            break;
+        case TEARDOWN:
+            verb = "stop and remove";
+            done = "stopped and removed";
+            break;
+        default:
+            verb = "restart";
+            done = "restarted";
+        }
+        int failures = 0;
+        for (StopContainersRemoteCallable.Result result : results) {
+            String took = String.format("%.1f s", result.getMillis() / 1000.0);
+            switch (result.getStatus()) {
+            case DONE:
+                console.logInfo(done + " container id " + result.getContainerId() + " in " + took);
+                break;
+            case KILLED_AT_DEADLINE:
+                console.logWarn("container id " + result.getContainerId() + " didn't " + verb + " within " + deadline
+                        + " s, killed it after " + took);
+                break;
+            case GONE:
+                console.logInfo("container id " + result.getContainerId() + " doesn't exist anymore");
+                break;
+            default:
+                failures++;
+                console.logError("failed to " + verb + " container id " + result.getContainerId() + " after " + took
+                        + ": " + result.getError());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Exports variables of given container to the build environment and remembers it in the build session.
+     */
+    protected static void exportContainer(AbstractBuild<?, ?> build, ContainerInfo info) {
+        build.addAction(new EnvInvisibleAction(info));
+        ResolutionContext.invalidate(build);
+        DockerSessionAction session = DockerSessionAction.of(build);
+        if (session != null) {
+            session.recordContainer(info);
+        }
+    }
+
     public DockerCommandDescriptor getDescriptor() {
         return (DockerCommandDescriptor) Jenkins.getInstance().getDescriptor(getClass());
     }
@@ -131,6 +333,45 @@ public abstract class DockerCommand implements Describable<DockerCommand>, Exten
         }
     }
 
+    /**
+     * Logs outcome of each operation performed by a {@link BatchRemoteCallable}.
+     * 
+     * @return number of failed operations
+     */
+    protected static int logBatchResults(List<BatchRemoteCallable.Result> results, ConsoleLogger console) {
+        int failures = 0;
+        for (BatchRemoteCallable.Result result : results) {
+            String action = result.getType().name().toLowerCase(Locale.ENGLISH);
+            if (result.isFailed()) {
+                failures++;
+                if (result.getContainerId() == null) {
+                    console.logError("failed to " + action + " containers: " + result.getError());
+                } else {
+                    console.logError("failed to " + action + " container id " + result.getContainerId() + ": "
+                            + result.getError());
+                }
+                continue;
+            }
+            switch (result.getType()) {
+            case STOP:
+                console.logInfo("stopped container id " + result.getContainerId());
+                break;
+            case KILL:
+                console.logInfo("killed container id " + result.getContainerId());
+                break;
+            case REMOVE:
+                console.logInfo("removed container id " + result.getContainerId());
+                break;
+            case START:
+                console.logInfo("started container id " + result.getContainerId());
+                break;
+            default:
+                break;
+            }
+        }
+        return failures;
+    }
+
     public abstract static class DockerCommandDescriptor extends Descriptor<DockerCommand> {
         protected DockerCommandDescriptor(Class<? extends DockerCommand> clazz) {
             super(clazz);
@@ -4,10 +4,7 @@ import com.github.dockerjava.api.exception.DockerException;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ExecCreateRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ExecStartRemoteCallable;
@@ -55,16 +52,15 @@ public class ExecCreateAndStartCommand extends DockerCommand {
         List<String> ids = Arrays.asList(containerIdsRes.split(","));
         
         Config cfgData = getConfig(build);
-        Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
         for (String id : ids) {
             id = id.trim();
             
             try {
-                String commandId = launcher.getChannel().call(new ExecCreateRemoteCallable(cfgData, descriptor, id, commandRes.split(" "), true));
+                String commandId = launcher.getChannel().call(new ExecCreateRemoteCallable(cfgData, id, commandRes.split(" "), true));
                 console.logInfo(String.format("Exec command with ID '%s' created in container '%s' ", commandId, id));
                 console.logInfo(String.format("Executing command with ID '%s'", commandId));
                 
-                launcher.getChannel().call(new ExecStartRemoteCallable(console.getListener(), cfgData, descriptor, commandId));
+                launcher.getChannel().call(new ExecStartRemoteCallable(console.getListener(), cfgData, commandId));
             } catch (Exception e) {
                 console.logError("failed to exec create and start command '" + commandRes + "' in containers " + ids);
                 e.printStackTrace();
@@ -3,13 +3,10 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.Arrays;
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ExecCreateRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -55,12 +52,11 @@ public class ExecCreateCommand extends DockerCommand {
         List<String> ids = Arrays.asList(containerIdsRes.split(","));
         
         Config cfgData = getConfig(build);
-        Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
         for (String id : ids) {
             id = id.trim();
             
             try {
-                String commandId = launcher.getChannel().call(new ExecCreateRemoteCallable(cfgData, descriptor, id, commandRes.split(" "), false));
+                String commandId = launcher.getChannel().call(new ExecCreateRemoteCallable(cfgData, id, commandRes.split(" "), false));
                 console.logInfo(String.format("Exec command with ID '%s' created in container '%s' ", commandId, id));
                 // TODO export env. variables with command IDs
             } catch (Exception e) {
@@ -4,10 +4,7 @@ import com.github.dockerjava.api.exception.DockerException;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ExecStartRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -48,9 +45,8 @@ public class ExecStartCommand extends DockerCommand {
             
             try {
                 Config cfgData = getConfig(build);
-                Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
                 
-                launcher.getChannel().call(new ExecStartRemoteCallable(console.getListener(), cfgData, descriptor, cmdId));
+                launcher.getChannel().call(new ExecStartRemoteCallable(console.getListener(), cfgData, cmdId));
             } catch (Exception e) {
                 console.logError("failed to execute cmd id " + cmdId);
                 e.printStackTrace();
@@ -3,15 +3,12 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.Arrays;
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.KillContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable.Mode;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -29,16 +26,30 @@ import com.github.dockerjava.api.exception.DockerException;
 public class KillCommand extends DockerCommand {
 
     private final String containerIds;
+    private final int parallelism;
 
     @DataBoundConstructor
-    public KillCommand(String containerIds) {
+    public KillCommand(String containerIds, int parallelism) {
         this.containerIds = containerIds;
+        this.parallelism = parallelism;
+    }
+
+    @Deprecated
+    public KillCommand(String containerIds) {
+        this(containerIds, 0);
     }
 
     public String getContainerIds() {
         return containerIds;
     }
 
+    /**
+     * @return maximum number of containers killed at the same time, 0 means the global setting
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
             throws DockerException {
@@ -50,18 +61,15 @@ public class KillCommand extends DockerCommand {
         List<String> ids = Arrays.asList(containerIdsRes.split(","));
         
         Config cfgData = getConfig(build);
-        Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-        for (String id : ids) {
-            id = id.trim();
-            
-            try {
-                launcher.getChannel().call(new KillContainerRemoteCallable(cfgData, descriptor, id));
-            	console.logInfo("killed container id " + id);
-            } catch (Exception e) {
-                console.logError("failed to kill containers " + ids);
-                e.printStackTrace();
-                throw new IllegalArgumentException(e);
+        try {
+            int failures = stopContainers(launcher, cfgData, Mode.KILL, ids, 0, 0, parallelism, console);
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to be killed");
             }
+        } catch (Exception e) {
+            console.logError("failed to kill containers " + ids);
+            e.printStackTrace();
+            throw new IllegalArgumentException(e);
         }
     }
 
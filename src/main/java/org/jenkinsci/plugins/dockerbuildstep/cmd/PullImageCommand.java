@@ -5,11 +5,8 @@ import hudson.AbortException;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import org.jenkinsci.plugins.docker.commons.credentials.DockerRegistryEndpoint;
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.PullImageRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -74,10 +71,9 @@ public class PullImageCommand extends DockerCommand {
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
             AuthConfig authConfig = getAuthConfig(build.getParent());
             
-            launcher.getChannel().call(new PullImageRemoteCallable(console.getListener(), cfgData, descriptor, authConfig, fromImageRes));
+            launcher.getChannel().call(new PullImageRemoteCallable(console.getListener(), cfgData, authConfig, fromImageRes));
             console.logInfo("Done");
         } catch (Exception e) {
             console.logError("failed to pull image " + fromImageRes);
@@ -6,12 +6,9 @@ import hudson.AbortException;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jenkinsci.plugins.docker.commons.credentials.DockerRegistryEndpoint;
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.PushImageRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -70,10 +67,9 @@ public class PushImageCommand extends DockerCommand {
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
             AuthConfig authConfig = getAuthConfig(build.getParent());
             
-            launcher.getChannel().call(new PushImageRemoteCallable(console.getListener(), cfgData, descriptor, authConfig, imageRes, tagRes));
+            launcher.getChannel().call(new PushImageRemoteCallable(console.getListener(), cfgData, authConfig, imageRes, tagRes));
             console.logInfo("Done pushing image " + imageRes);
         } catch (Exception e) {
             console.logError("failed to push image " + imageRes);
@@ -1,25 +1,41 @@
 package org.jenkinsci.plugins.dockerbuildstep.cmd;
 
 import hudson.Extension;
+import hudson.Functions;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
+import hudson.util.FormValidation;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
+import org.apache.commons.lang3.StringUtils;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ListContainersRemoteCallable;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.RemoveContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerPruneAction;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Operation;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ContainerFilter;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.PruneRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels.Scope;
+import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
 
 import com.github.dockerjava.api.exception.DockerException;
-import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.PruneType;
 
 /**
- * This command removes all Docker containers. Before removing them, it kills all them in case some of them are running.
+ * This command removes all Docker containers, or only those created by the current job or build. Before removing
+ * them, it kills all them in case some of them are running.
+ * 
+ * In prune mode, stopped containers and optionally unused volumes, networks and dangling images are removed by the
+ * daemon's prune calls instead of one call per container. Running containers are killed first only when forced.
+ * Containers to be killed or selected by image are listed one by one, and listing can't select them by creation time,
+ * so a creation time cutoff can't be combined with either.
  * 
  * @author vjuranek
  * 
@@ -28,11 +44,33 @@ public class RemoveAllCommand extends DockerCommand {
 
     private final boolean removeVolumes;
     private final boolean force;
+    private final boolean prune;
+    private final boolean pruneVolumes;
+    private final boolean pruneNetworks;
+    private final boolean pruneImages;
+    private final String labels;
+    private final String until;
+    private final String ancestor;
+    private final Scope scope;
 
     @DataBoundConstructor
-    public RemoveAllCommand(boolean removeVolumes, boolean force) {
+    public RemoveAllCommand(boolean removeVolumes, boolean force, boolean prune, boolean pruneVolumes,
+            boolean pruneNetworks, boolean pruneImages, String labels, String until, String ancestor, Scope scope) {
         this.removeVolumes = removeVolumes;
         this.force = force;
+        this.prune = prune;
+        this.pruneVolumes = pruneVolumes;
+        this.pruneNetworks = pruneNetworks;
+        this.pruneImages = pruneImages;
+        this.labels = labels;
+        this.until = until;
+        this.ancestor = ancestor;
+        this.scope = scope;
+    }
+
+    @Deprecated
+    public RemoveAllCommand(boolean removeVolumes, boolean force) {
+        this(removeVolumes, force, false, false, false, false, null, null, null, Scope.ALL);
     }
 
     public boolean isRemoveVolumes() {
@@ -43,20 +81,56 @@ public class RemoveAllCommand extends DockerCommand {
         return force;
     }
 
+    public boolean isPrune() {
+        return prune;
+    }
+
+    public boolean isPruneVolumes() {
+        return pruneVolumes;
+    }
+
+    public boolean isPruneNetworks() {
+        return pruneNetworks;
+    }
+
+    public boolean isPruneImages() {
+        return pruneImages;
+    }
+
+    public String getLabels() {
+        return labels;
+    }
+
+    public String getUntil() {
+        return until;
+    }
+
+    public String getAncestor() {
+        return ancestor;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
             throws DockerException {
-        
+        if (prune) {
+            prune(launcher, build, console);
+            return;
+        }
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-            
-            List<Container> containers = launcher.getChannel().call(new ListContainersRemoteCallable(cfgData, descriptor, false));
+            ContainerFilter filter = ContainerFilter.all(false).withLabelsAndNames(
+                    OwnershipLabels.filters(build, scope), null);
             
-            for (Container container : containers) {
-                launcher.getChannel().call(new RemoveContainerRemoteCallable(cfgData, descriptor, container.getId(), force, removeVolumes));
-                console.logInfo("removed container id " + container.getId());
+            List<Result> results = launcher.getChannel().call(new BatchRemoteCallable(cfgData,
+                    Operation.list(filter), Operation.remove(null, force, removeVolumes)));
+            int failures = logBatchResults(results, console);
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to be removed");
             }
         } catch (Exception e) {
             console.logError("failed to stop all containers");
@@ -66,12 +140,87 @@ public class RemoveAllCommand extends DockerCommand {
         
     }
 
+    private void prune(Launcher launcher, AbstractBuild<?, ?> build, ConsoleLogger console) {
+        // filters of the scope aren't joined with the entered ones, job names may contain commas
+        List<String> labelList = ContainerFilter.split(Resolver.buildVar(build, labels));
+        labelList.addAll(OwnershipLabels.filters(build, scope));
+        String untilRes = StringUtils.trimToNull(Resolver.buildVar(build, until));
+        String ancestorRes = StringUtils.trimToNull(Resolver.buildVar(build, ancestor));
+        if (untilRes != null && (force || ancestorRes != null)) {
+            String message = "\"Created before\" can't be combined with force remove or image";
+            console.logError(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        try {
+            Config cfgData = getConfig(build);
+            int failures = 0;
+
+            ContainerFilter filter = ContainerFilter.byImage(false, ancestorRes).withLabelsAndNames(labelList, null);
+            if (force) {
+                // killed containers are pruned only once they are really stopped
+                failures += logBatchResults(launcher.getChannel().call(new BatchRemoteCallable(cfgData,
+                        Operation.list(filter), Operation.kill(null), Operation.awaitStop(null))), console);
+            }
+
+            List<PruneType> types = new ArrayList<PruneType>();
+            if (ancestorRes == null) {
+                types.add(PruneType.CONTAINERS);
+            } else {
+                // the prune API can't select containers by image
+                failures += logBatchResults(launcher.getChannel().call(new BatchRemoteCallable(cfgData,
+                        Operation.list(filter.withStatuses("created", "exited", "dead")),
+                        Operation.remove(null, false, removeVolumes))), console);
+            }
+            if (pruneVolumes) {
+                types.add(PruneType.VOLUMES);
+            }
+            if (pruneNetworks) {
+                types.add(PruneType.NETWORKS);
+            }
+            if (pruneImages) {
+                types.add(PruneType.IMAGES);
+            }
+
+            List<PruneRemoteCallable.Result> results = launcher.getChannel().call(
+                    new PruneRemoteCallable(cfgData, types, labelList, untilRes));
+            for (PruneRemoteCallable.Result result : results) {
+                String type = result.getType().toLowerCase(Locale.ENGLISH);
+                if (result.isFailed()) {
+                    failures++;
+                    console.logError("failed to prune " + type + ": " + result.getError());
+                } else {
+                    console.logInfo(String.format("pruned %s, reclaimed %s in %d ms", type,
+                            Functions.humanReadableByteSize(result.getSpaceReclaimed()), result.getMillis()));
+                }
+            }
+            DockerPruneAction.record(build, results);
+
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " prune operation(s) failed");
+            }
+        } catch (Exception e) {
+            console.logError("failed to prune containers");
+            e.printStackTrace();
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     @Extension
     public static class RemoveAllCommandDescriptor extends DockerCommandDescriptor {
         @Override
         public String getDisplayName() {
             return "Remove all containers";
         }
+
+        public FormValidation doCheckUntil(@QueryParameter String value, @QueryParameter boolean force,
+                @QueryParameter String ancestor) {
+            if (StringUtils.isNotBlank(value) && (force || StringUtils.isNotBlank(ancestor))) {
+                return FormValidation.error("Can't be combined with force remove or image, containers killed or "
+                        + "selected by image would be removed regardless of when they were created");
+            }
+            return FormValidation.ok();
+        }
     }
 
 }
@@ -3,16 +3,15 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.Arrays;
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.RemoveContainerRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.RemoteCallPipeline;
+import org.jenkinsci.plugins.dockerbuildstep.util.RemoteCallPipeline.Outcome;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
 
@@ -71,24 +70,34 @@ public class RemoveCommand extends DockerCommand {
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-            
             
+            RemoteCallPipeline<Void> pipeline = newPipeline(launcher);
             for (String id : ids) {
                 id = id.trim();
-                try {
-                    launcher.getChannel().call(new RemoveContainerRemoteCallable(cfgData, descriptor, id, force, removeVolumes));
+                pipeline.submit(id, new RemoveContainerRemoteCallable(cfgData, id, force, removeVolumes));
+            }
+
+            int failures = 0;
+            for (Outcome<Void> outcome : pipeline.awaitAll()) {
+                String id = outcome.getKey();
+                if (!outcome.isFailed()) {
                     console.logInfo("removed container id " + id);
-                } catch (NotFoundException e) {
+                } else if (outcome.getError() instanceof NotFoundException) {
                     if (!ignoreIfNotFound) {
+                        failures++;
                         console.logError(String.format("container '%s' not found ", id));
-                        throw e;
                     } else {
                         console.logInfo(String.format(
                                 "container '%s' not found, but skipping this error is turned on, let's continue ... ", id));
                     }
+                } else {
+                    failures++;
+                    console.logError("failed to remove container id " + id + ": " + outcome.getErrorMessage());
                 }
             }
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to be removed");
+            }
         } catch (Exception e) {
             console.logError("failed to remove containers " + ids);
             e.printStackTrace();
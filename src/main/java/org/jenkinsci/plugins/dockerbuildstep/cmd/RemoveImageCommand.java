@@ -3,10 +3,7 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.RemoveImageRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -71,9 +68,8 @@ public class RemoveImageCommand extends DockerCommand {
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
             
-            launcher.getChannel().call(new RemoveImageRemoteCallable(cfgData, descriptor, imageNameRes, imageIdRes));
+            launcher.getChannel().call(new RemoveImageRemoteCallable(cfgData, imageNameRes, imageIdRes));
             console.logInfo("Removed " + logInformation);
         } catch (NotFoundException e) {
             if (!ignoreIfNotFound) {
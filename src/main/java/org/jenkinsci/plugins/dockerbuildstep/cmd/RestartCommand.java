@@ -3,15 +3,12 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.Arrays;
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.RestartContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable.Mode;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -30,11 +27,20 @@ public class RestartCommand extends DockerCommand {
 
     private final String containerIds;
     private final int timeout;
+    private final int deadline;
+    private final int parallelism;
 
     @DataBoundConstructor
-    public RestartCommand(String containerIds, int timeout) {
+    public RestartCommand(String containerIds, int timeout, int deadline, int parallelism) {
         this.containerIds = containerIds;
         this.timeout = timeout;
+        this.deadline = deadline;
+        this.parallelism = parallelism;
+    }
+
+    @Deprecated
+    public RestartCommand(String containerIds, int timeout) {
+        this(containerIds, timeout, 0, 0);
     }
 
     public String getContainerIds() {
@@ -45,6 +51,20 @@ public class RestartCommand extends DockerCommand {
         return timeout;
     }
 
+    /**
+     * @return seconds after which all containers still stopping are killed, 0 means no deadline
+     */
+    public int getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return maximum number of containers restarted at the same time, 0 means the global setting
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console) throws DockerException {
         if (containerIds == null || containerIds.isEmpty()) {
@@ -56,12 +76,10 @@ public class RestartCommand extends DockerCommand {
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-            
-            for (String id : ids) {
-                id = id.trim();
-                launcher.getChannel().call(new RestartContainerRemoteCallable(cfgData, descriptor, id, timeout));
-                console.logInfo("restarted container id " + id);
+            int failures = stopContainers(launcher, cfgData, Mode.RESTART, ids, timeout, deadline, parallelism,
+                    console);
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to restart");
             }
         } catch (Exception e) {
             console.logError("failed to restart containers ids " + ids);
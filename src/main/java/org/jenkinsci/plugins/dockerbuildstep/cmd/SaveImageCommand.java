@@ -3,13 +3,10 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.io.IOException;
 
 import java.net.HttpURLConnection;
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.SaveImageRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -97,9 +94,8 @@ public class SaveImageCommand extends DockerCommand {
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
             
-            launcher.getChannel().call(new SaveImageRemoteCallable(cfgData, descriptor, destinationRes, filenameRes, imageNameRes, imageTagRes));
+            launcher.getChannel().call(new SaveImageRemoteCallable(cfgData, destinationRes, filenameRes, imageNameRes, imageTagRes));
             
             console.logInfo("Finished save image " + imageNameRes + " " + imageTagRes);
         } catch (NotFoundException e) {
@@ -3,26 +3,20 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.action.EnvInvisibleAction;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ListContainersRemoteCallable;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StartContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ContainerFilter;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Operation;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Type;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import com.github.dockerjava.api.exception.DockerException;
-import com.github.dockerjava.api.model.Container;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.github.dockerjava.api.command.InspectContainerResponse;
 
 /**
  * This command starts all containers create from specified image ID. It also exports some build environment variable
@@ -34,16 +28,33 @@ import com.github.dockerjava.api.command.InspectContainerResponse;
 public class StartByImageIdCommand extends DockerCommand {
 
     private final String imageId;
+    private final String labels;
+    private final String names;
 
     @DataBoundConstructor
-    public StartByImageIdCommand(String imageId) {
+    public StartByImageIdCommand(String imageId, String labels, String names) {
         this.imageId = imageId;
+        this.labels = labels;
+        this.names = names;
+    }
+
+    @Deprecated
+    public StartByImageIdCommand(String imageId) {
+        this(imageId, null, null);
     }
 
     public String getImageId() {
         return imageId;
     }
 
+    public String getLabels() {
+        return labels;
+    }
+
+    public String getNames() {
+        return names;
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
             throws DockerException {
@@ -52,26 +63,23 @@ public class StartByImageIdCommand extends DockerCommand {
         }
 
         String imageIdRes = Resolver.buildVar(build, imageId);
+        ContainerFilter filter = ContainerFilter.byImage(true, imageIdRes).withLabelsAndNames(
+                Resolver.buildVar(build, labels), Resolver.buildVar(build, names));
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-            List<Container> containers = launcher.getChannel().call(new ListContainersRemoteCallable(cfgData, descriptor, true));
+            List<Result> results = launcher.getChannel().call(new BatchRemoteCallable(cfgData,
+                    Operation.list(filter.withStatuses("created", "exited")), Operation.start(null), Operation.inspect(null)));
+            int failures = logBatchResults(results, console);
             
-            for (Container container : containers) {
-                if (imageIdRes.equalsIgnoreCase(container.getImage())) {
-                    String inspectRespSerialized = launcher.getChannel().call(new StartContainerRemoteCallable(cfgData, descriptor, container.getId()));
-                    
-                    ObjectMapper mapper = new ObjectMapper();
-                    mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-                    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-                    InspectContainerResponse inspectResp = mapper.readValue(inspectRespSerialized, InspectContainerResponse.class);
-                    
-                    console.logInfo("started container id " + container.getId());
-                    EnvInvisibleAction envAction = new EnvInvisibleAction(inspectResp);
-                    build.addAction(envAction);
+            for (Result result : results) {
+                if (result.getType() == Type.INSPECT && !result.isFailed()) {
+                    exportContainer(build, result.getInfo());
                 }
             }
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to start");
+            }
         } catch (Exception e) {
             console.logError("failed to start container by image id " + imageIdRes);
             e.printStackTrace();
@@ -1,28 +1,25 @@
 package org.jenkinsci.plugins.dockerbuildstep.cmd;
 
 import com.github.dockerjava.api.exception.DockerException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.github.dockerjava.api.command.InspectContainerResponse;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.action.ContainerInfo;
 import org.jenkinsci.plugins.dockerbuildstep.action.DockerContainerConsoleAction;
-import org.jenkinsci.plugins.dockerbuildstep.action.EnvInvisibleAction;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.WaitForPortsRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StartContainerRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.RemoteCallPipeline;
+import org.jenkinsci.plugins.dockerbuildstep.util.RemoteCallPipeline.Outcome;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This command starts one or more Docker containers. It also exports some build environment variables like IP or
@@ -36,12 +33,41 @@ public class StartCommand extends DockerCommand {
     private final String containerIds;
     private final String waitPorts;
     private final String containerIdsLogging;
+    private final boolean startInParallel;
+    private final int parallelism;
+    private final boolean failFast;
+    private final int waitPortsTimeout;
+    private final boolean failOnPortTimeout;
 
     @DataBoundConstructor
-    public StartCommand(String containerIds, String waitPorts, String containerIdsLogging) {
+    public StartCommand(String containerIds, String waitPorts, String containerIdsLogging, boolean startInParallel,
+            int parallelism, boolean failFast, int waitPortsTimeout, boolean failOnPortTimeout) {
         this.containerIds = containerIds;
         this.waitPorts = waitPorts;
         this.containerIdsLogging = containerIdsLogging;
+        this.startInParallel = startInParallel;
+        this.parallelism = parallelism;
+        this.failFast = failFast;
+        this.waitPortsTimeout = waitPortsTimeout;
+        this.failOnPortTimeout = failOnPortTimeout;
+    }
+
+    @Deprecated
+    public StartCommand(String containerIds, String waitPorts, String containerIdsLogging, int parallelism,
+            boolean failFast, int waitPortsTimeout, boolean failOnPortTimeout) {
+        this(containerIds, waitPorts, containerIdsLogging, true, parallelism, failFast, waitPortsTimeout,
+                failOnPortTimeout);
+    }
+
+    @Deprecated
+    public StartCommand(String containerIds, String waitPorts, String containerIdsLogging, int parallelism,
+            boolean failFast) {
+        this(containerIds, waitPorts, containerIdsLogging, true, parallelism, failFast, 0, false);
+    }
+
+    @Deprecated
+    public StartCommand(String containerIds, String waitPorts, String containerIdsLogging) {
+        this(containerIds, waitPorts, containerIdsLogging, false, 0, false, 0, false);
     }
 
     public String getContainerIds() {
@@ -54,6 +80,47 @@ public class StartCommand extends DockerCommand {
         return containerIdsLogging;
     }
 
+    /**
+     * @return true if containers are started at the same time, otherwise they're started one by one in the listed
+     *         order, e.g. so that containers linked to a previous one find it running, and the first failure stops
+     *         the step
+     */
+    public boolean isStartInParallel() {
+        return startInParallel;
+    }
+
+    /**
+     * @return maximum number of containers started at the same time when starting in parallel, 0 means the global
+     *         setting
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return true if no more containers should be started after the first failure when starting in parallel,
+     *         otherwise all containers are started and all failures reported
+     */
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * @return seconds to wait for all ports, 0 means the default of
+     *         {@value WaitForPortsRemoteCallable#DEFAULT_TIMEOUT} seconds
+     */
+    public int getWaitPortsTimeout() {
+        return waitPortsTimeout;
+    }
+
+    /**
+     * @return true if the build should fail when some ports aren't available in time, otherwise only a warning is
+     *         logged
+     */
+    public boolean isFailOnPortTimeout() {
+        return failOnPortTimeout;
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
             throws DockerException {
@@ -66,46 +133,73 @@ public class StartCommand extends DockerCommand {
 
         // TODO check, if container exists and is stopped (probably catch exception)
         Config cfgData = getConfig(build);
-        Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-        for (String id : ids) {
-            try {
+        Map<String, DockerContainerConsoleAction> outActions = new HashMap<String, DockerContainerConsoleAction>();
+        int failures = 0;
+        int skipped = 0;
+        boolean stopAtFailure = !startInParallel || failFast;
+        try {
+            RemoteCallPipeline<ContainerInfo> pipeline = newPipeline(launcher, startInParallel ? parallelism : 1);
+            for (String id : ids) {
                 id = id.trim();
 
-                DockerContainerConsoleAction outAction = null;
+                if (stopAtFailure) {
+                    // wait for a free slot first, so that failures of the calls finished meanwhile are seen
+                    pipeline.awaitCapacity();
+                    if (pipeline.hasFailures()) {
+                        skipped++;
+                        continue;
+                    }
+                }
+
                 if (logIds.contains(id)) {
-                    outAction = attachContainerOutput(build, id);
+                    outActions.put(id, attachContainerOutput(build, id));
                 }
                 
-                String inspectRespSerialized = launcher.getChannel().call(new StartContainerRemoteCallable(cfgData, descriptor, id));
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-                mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-                InspectContainerResponse inspectResp = mapper.readValue(inspectRespSerialized, InspectContainerResponse.class);
+                pipeline.submit(id, new StartContainerRemoteCallable(cfgData, id));
+            }
+
+            // containers are exported in the order they were listed, regardless of which started first
+            for (Outcome<ContainerInfo> outcome : pipeline.awaitAll()) {
+                String id = outcome.getKey();
+                if (outcome.isFailed()) {
+                    failures++;
+                    console.logError("failed to start container id " + id + ": " + outcome.getErrorMessage());
+                    continue;
+                }
+                ContainerInfo info = outcome.getValue();
                 
                 console.logInfo("started container id " + id);
     
+                DockerContainerConsoleAction outAction = outActions.get(id);
                 if (outAction != null) {
-                    outAction.setContainerName(inspectResp.getName());
+                    outAction.setContainerName(info.getName());
                 }
-                EnvInvisibleAction envAction = new EnvInvisibleAction(inspectResp);
-                build.addAction(envAction);
-            } catch (Exception e) {
-                console.logError("failed to start command " + id);
-                e.printStackTrace();
-                throw new IllegalArgumentException(e);
+                exportContainer(build, info);
             }
+        } catch (Exception e) {
+            console.logError("failed to start containers " + ids);
+            e.printStackTrace();
+            throw new IllegalArgumentException(e);
+        }
+        if (skipped > 0) {
+            console.logWarn(skipped + " container(s) weren't started because of the failure");
+        }
+        if (failures > 0) {
+            throw new IllegalArgumentException(failures + " container(s) failed to start");
         }
 
         // wait for ports
         if (waitPorts != null && !waitPorts.isEmpty()) {
             String waitPortsResolved = Resolver.buildVar(build, waitPorts);
-            waitForPorts(launcher, cfgData, descriptor, waitPortsResolved, console);
+            waitForPorts(launcher, cfgData, waitPortsResolved, console);
         }
     }
     
-    private void waitForPorts(Launcher launcher, Config cfgData, Descriptor<?> descriptor, String waitForPorts, ConsoleLogger console) throws DockerException {
+    private void waitForPorts(Launcher launcher, Config cfgData, String waitForPorts, ConsoleLogger console) throws DockerException {
         try {
-            launcher.getChannel().call(new WaitForPortsRemoteCallable(console.getListener(), cfgData, descriptor, waitForPorts));
+            int timeout = waitPortsTimeout > 0 ? waitPortsTimeout : WaitForPortsRemoteCallable.DEFAULT_TIMEOUT;
+            launcher.getChannel().call(new WaitForPortsRemoteCallable(console.getListener(), cfgData, waitForPorts,
+                    timeout, failOnPortTimeout));
         } catch (Exception e) {
             console.logError("failed to start command (wait for ports) ");
             e.printStackTrace();
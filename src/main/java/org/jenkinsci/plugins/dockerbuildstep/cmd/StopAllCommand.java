@@ -3,31 +3,43 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ListContainersRemoteCallable;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Operation;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ContainerFilter;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels.Scope;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import com.github.dockerjava.api.exception.DockerException;
-import com.github.dockerjava.api.model.Container;
 
 /**
- * This command stop all Docker containers.
+ * This command stop all Docker containers, or only those created by the current job or build.
  * 
  * @author vjuranek
  * 
  */
 public class StopAllCommand extends DockerCommand {
 
+    private final Scope scope;
+
     @DataBoundConstructor
+    public StopAllCommand(Scope scope) {
+        this.scope = scope;
+    }
+
+    @Deprecated
     public StopAllCommand() {
+        this(Scope.ALL);
+    }
+
+    public Scope getScope() {
+        return scope;
     }
 
     @Override
@@ -35,13 +47,14 @@ public class StopAllCommand extends DockerCommand {
             throws DockerException {
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-            
-            List<Container> containers = launcher.getChannel().call(new ListContainersRemoteCallable(cfgData, descriptor, false));
+            ContainerFilter filter = ContainerFilter.all(false).withLabelsAndNames(
+                    OwnershipLabels.filters(build, scope), null);
             
-            for (Container container : containers) {
-                launcher.getChannel().call(new StopContainerRemoteCallable(cfgData, descriptor, container.getId()));
-                console.logInfo("stoped container id " + container.getId());
+            List<Result> results = launcher.getChannel().call(new BatchRemoteCallable(cfgData,
+                    Operation.list(filter), Operation.stop(null)));
+            int failures = logBatchResults(results, console);
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to stop");
             }
         } catch (Exception e) {
             console.logError("failed to stop all containers");
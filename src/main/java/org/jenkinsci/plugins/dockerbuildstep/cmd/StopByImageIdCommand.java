@@ -3,21 +3,19 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ListContainersRemoteCallable;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ContainerFilter;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Operation;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Result;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import com.github.dockerjava.api.exception.DockerException;
-import com.github.dockerjava.api.model.Container;
 
 /**
  * This command stops all containers create from specified image ID.
@@ -28,16 +26,33 @@ import com.github.dockerjava.api.model.Container;
 public class StopByImageIdCommand extends DockerCommand {
 
     private final String imageId;
+    private final String labels;
+    private final String names;
 
     @DataBoundConstructor
-    public StopByImageIdCommand(String imageId) {
+    public StopByImageIdCommand(String imageId, String labels, String names) {
         this.imageId = imageId;
+        this.labels = labels;
+        this.names = names;
+    }
+
+    @Deprecated
+    public StopByImageIdCommand(String imageId) {
+        this(imageId, null, null);
     }
 
     public String getImageId() {
         return imageId;
     }
 
+    public String getLabels() {
+        return labels;
+    }
+
+    public String getNames() {
+        return names;
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
             throws DockerException {
@@ -46,17 +61,17 @@ public class StopByImageIdCommand extends DockerCommand {
         }
 
         String imageIdRes = Resolver.buildVar(build, imageId);
+        ContainerFilter filter = ContainerFilter.byImage(false, imageIdRes).withLabelsAndNames(
+                Resolver.buildVar(build, labels), Resolver.buildVar(build, names));
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
             
-            List<Container> containers = launcher.getChannel().call(new ListContainersRemoteCallable(cfgData, descriptor, false));
-            for (Container container : containers) {
-                if (imageIdRes.equalsIgnoreCase(container.getImage())) {
-                    launcher.getChannel().call(new StopContainerRemoteCallable(cfgData, descriptor, container.getId()));
-                    console.logInfo("stoped container id " + container.getId());
-                }
+            List<Result> results = launcher.getChannel().call(new BatchRemoteCallable(cfgData,
+                    Operation.list(filter), Operation.stop(null)));
+            int failures = logBatchResults(results, console);
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to stop");
             }
         } catch (Exception e) {
             console.logError("failed to stop containers by imageIdRes " + imageIdRes);
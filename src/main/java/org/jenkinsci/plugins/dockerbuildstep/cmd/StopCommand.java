@@ -3,15 +3,12 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
 import java.util.Arrays;
 import java.util.List;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable.Mode;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
 import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -29,16 +26,48 @@ import com.github.dockerjava.api.exception.DockerException;
 public class StopCommand extends DockerCommand {
 
     private final String containerIds;
+    private final int stopTimeout;
+    private final int deadline;
+    private final int parallelism;
 
     @DataBoundConstructor
-    public StopCommand(String containerIds) {
+    public StopCommand(String containerIds, int stopTimeout, int deadline, int parallelism) {
         this.containerIds = containerIds;
+        this.stopTimeout = stopTimeout;
+        this.deadline = deadline;
+        this.parallelism = parallelism;
+    }
+
+    @Deprecated
+    public StopCommand(String containerIds) {
+        this(containerIds, 0, 0, 0);
     }
 
     public String getContainerIds() {
         return containerIds;
     }
 
+    /**
+     * @return seconds Docker waits for each container to stop before killing it, 0 means the daemon default
+     */
+    public int getStopTimeout() {
+        return stopTimeout;
+    }
+
+    /**
+     * @return seconds after which all containers still stopping are killed, 0 means no deadline
+     */
+    public int getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return maximum number of containers stopped at the same time, 0 means the global setting
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     @Override
     public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
             throws DockerException {
@@ -50,20 +79,16 @@ public class StopCommand extends DockerCommand {
         List<String> ids = Arrays.asList(containerIdsRes.split(","));
         
         Config cfgData = getConfig(build);
-        Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
-        for (String id : ids) {
-            id = id.trim();
-            
-            try {
-                launcher.getChannel().call(new StopContainerRemoteCallable(cfgData, descriptor, id));
-            } catch (Exception e) {
-                console.logError("failed to stop container id " + id);
-                e.printStackTrace();
-                throw new IllegalArgumentException(e);
+        try {
+            int failures = stopContainers(launcher, cfgData, Mode.STOP, ids, stopTimeout, deadline, parallelism,
+                    console);
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to stop");
             }
-            
-            
-            console.logInfo("stopped container id " + id);
+        } catch (Exception e) {
+            console.logError("failed to stop containers " + ids);
+            e.printStackTrace();
+            throw new IllegalArgumentException(e);
         }
     }
 
@@ -5,10 +5,7 @@ import com.github.dockerjava.api.exception.NotFoundException;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
-import hudson.model.Descriptor;
-import jenkins.model.Jenkins;
 
-import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
 import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.TagImageRemoteCallable;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
@@ -82,9 +79,8 @@ public class TagImageCommand extends DockerCommand {
         
         try {
             Config cfgData = getConfig(build);
-            Descriptor<?> descriptor = Jenkins.getInstance().getDescriptor(DockerBuilder.class);
             
-            launcher.getChannel().call(new TagImageRemoteCallable(cfgData, descriptor, imageRes, repositoryRes, tagRes, withForce));
+            launcher.getChannel().call(new TagImageRemoteCallable(cfgData, imageRes, repositoryRes, tagRes, withForce));
         } catch (NotFoundException e) {
             if (!ignoreIfNotFound) {
                 console.logError(String.format("image '%s' not found ",
@@ -0,0 +1,101 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd;
+
+import hudson.Extension;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable.Mode;
+import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import com.github.dockerjava.api.exception.DockerException;
+
+/**
+ * This command stops and force-removes one or more Docker containers. All containers are handled concurrently in a
+ * single call to the build node, containers which don't exist anymore are skipped.
+ */
+public class TeardownCommand extends DockerCommand {
+
+    private final String containerIds;
+    private final int stopTimeout;
+    private final int deadline;
+    private final boolean removeVolumes;
+    private final int parallelism;
+
+    @DataBoundConstructor
+    public TeardownCommand(String containerIds, int stopTimeout, int deadline, boolean removeVolumes,
+            int parallelism) {
+        this.containerIds = containerIds;
+        this.stopTimeout = stopTimeout;
+        this.deadline = deadline;
+        this.removeVolumes = removeVolumes;
+        this.parallelism = parallelism;
+    }
+
+    public String getContainerIds() {
+        return containerIds;
+    }
+
+    /**
+     * @return seconds Docker waits for each container to stop before killing it, 0 means the daemon default
+     */
+    public int getStopTimeout() {
+        return stopTimeout;
+    }
+
+    /**
+     * @return seconds after which all containers still stopping are removed by force, 0 means no deadline
+     */
+    public int getDeadline() {
+        return deadline;
+    }
+
+    public boolean isRemoveVolumes() {
+        return removeVolumes;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
+            throws DockerException {
+        if (containerIds == null || containerIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one parameter is required");
+        }
+
+        String containerIdsRes = Resolver.buildVar(build, containerIds);
+        List<String> ids = trimIds(Arrays.asList(containerIdsRes.split(",")));
+
+        Config cfgData = getConfig(build);
+        try {
+            long start = System.nanoTime();
+            int failures = stopContainers(launcher, cfgData, Mode.TEARDOWN, ids, stopTimeout, deadline, parallelism,
+                    removeVolumes, console);
+            console.logInfo(String.format("tore down %d container(s) in %.1f s", ids.size(),
+                    (System.nanoTime() - start) / 1e9));
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) failed to be stopped and removed");
+            }
+        } catch (Exception e) {
+            console.logError("failed to stop and remove containers " + ids);
+            e.printStackTrace();
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Extension
+    public static class TeardownCommandDescriptor extends DockerCommandDescriptor {
+        @Override
+        public String getDisplayName() {
+            return "Stop and remove container(s)";
+        }
+    }
+
+}
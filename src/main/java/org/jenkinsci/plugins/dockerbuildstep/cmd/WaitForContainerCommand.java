@@ -0,0 +1,152 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd;
+
+import hudson.Extension;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.util.FormValidation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.WaitForContainerRemoteCallable;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.WaitForContainerRemoteCallable.Condition;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.WaitForContainerRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.Resolver;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+
+import com.github.dockerjava.api.exception.DockerException;
+
+/**
+ * This command waits until one or more Docker containers are running, healthy according to their HEALTHCHECK, have
+ * exited or have written a matching log line. The build continues as soon as all of them do, and fails when they
+ * don't within the timeout.
+ */
+public class WaitForContainerCommand extends DockerCommand {
+
+    /**
+     * Seconds to wait when no timeout is configured.
+     */
+    public static final int DEFAULT_TIMEOUT = 120;
+
+    private final String containerIds;
+    private final Condition condition;
+    private final String exitCode;
+    private final String logPattern;
+    private final int timeout;
+
+    @DataBoundConstructor
+    public WaitForContainerCommand(String containerIds, Condition condition, String exitCode, String logPattern,
+            int timeout) {
+        this.containerIds = containerIds;
+        this.condition = condition;
+        this.exitCode = exitCode;
+        this.logPattern = logPattern;
+        this.timeout = timeout;
+    }
+
+    public String getContainerIds() {
+        return containerIds;
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public String getExitCode() {
+        return exitCode;
+    }
+
+    public String getLogPattern() {
+        return logPattern;
+    }
+
+    /**
+     * @return seconds to wait for all containers, 0 means {@link #DEFAULT_TIMEOUT}
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public void execute(Launcher launcher, @SuppressWarnings("rawtypes") AbstractBuild build, ConsoleLogger console)
+            throws DockerException {
+        if (containerIds == null || containerIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one parameter is required");
+        }
+        Condition conditionRes = condition != null ? condition : Condition.RUNNING;
+        String logPatternRes = Resolver.buildVar(build, logPattern);
+        if (conditionRes == Condition.LOG_MATCHES && StringUtils.isBlank(logPatternRes)) {
+            throw new IllegalArgumentException("Log pattern is required to wait for a log line");
+        }
+        String exitCodeRes = StringUtils.trimToNull(Resolver.buildVar(build, exitCode));
+        Integer expectedExitCode = conditionRes == Condition.EXITED && exitCodeRes != null
+                ? Integer.valueOf(exitCodeRes) : null;
+
+        List<String> ids = new ArrayList<String>();
+        for (String id : Resolver.buildVar(build, containerIds).split(",")) {
+            if (!id.trim().isEmpty()) {
+                ids.add(id.trim());
+            }
+        }
+        int timeoutRes = timeout > 0 ? timeout : DEFAULT_TIMEOUT;
+
+        Config cfgData = getConfig(build);
+        try {
+            List<Result> results = launcher.getChannel().call(new WaitForContainerRemoteCallable(cfgData, ids,
+                    conditionRes, expectedExitCode, logPatternRes, timeoutRes));
+            int failures = 0;
+            for (Result result : results) {
+                String took = String.format("%.1f s", result.getMillis() / 1000.0);
+                String state = result.getState() != null ? " (" + result.getState() + ")" : "";
+                if (result.isMet()) {
+                    console.logInfo("container id " + result.getContainerId() + " ready after " + took + state);
+                } else {
+                    failures++;
+                    console.logError("container id " + result.getContainerId() + " " + result.getError() + state);
+                }
+            }
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " container(s) didn't reach condition "
+                        + conditionRes.getDescription());
+            }
+        } catch (Exception e) {
+            console.logError("failed to wait for containers " + ids);
+            e.printStackTrace();
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Extension
+    public static class WaitForContainerCommandDescriptor extends DockerCommandDescriptor {
+        @Override
+        public String getDisplayName() {
+            return "Wait for container(s)";
+        }
+
+        public FormValidation doCheckExitCode(@QueryParameter String value) {
+            if (StringUtils.isBlank(value) || value.contains("$") || value.trim().matches("-?\\d+")) {
+                return FormValidation.ok();
+            }
+            return FormValidation.error("Exit code has to be a number");
+        }
+
+        public FormValidation doCheckLogPattern(@QueryParameter String value) {
+            if (StringUtils.isBlank(value) || value.contains("$")) {
+                return FormValidation.ok();
+            }
+            try {
+                Pattern.compile(value);
+                return FormValidation.ok();
+            } catch (PatternSyntaxException e) {
+                return FormValidation.error("Invalid regular expression: " + e.getDescription());
+            }
+        }
+    }
+
+}
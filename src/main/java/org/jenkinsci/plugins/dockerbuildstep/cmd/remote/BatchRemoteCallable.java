@@ -0,0 +1,243 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import jenkins.security.MasterToSlaveCallable;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.action.ContainerInfo;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.WaitContainerResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Container;
+
+
+/**
+ * A Callable running an ordered list of container operations in a single remote call, so that commands working with
+ * many containers don't pay a channel round trip per container.
+ * It can be sent through a Channel to execute on the correct build node.
+ *
+ * An operation without container ID is applied to each container selected by the preceding list operation.
+ * Failed operations don't stop the batch, but the container they failed for is skipped by the following operations.
+ * The result of each performed operation, successful or not, is returned in the order of execution.
+ */
+public class BatchRemoteCallable extends MasterToSlaveCallable<List<BatchRemoteCallable.Result>, Exception> {
+
+    private static final long serialVersionUID = 2817390262133489507L;
+
+    /**
+     * How long to wait for a container to stop, in seconds.
+     */
+    static final int WAIT_TIMEOUT = 30;
+
+    Config cfgData;
+
+    List<Operation> operations;
+
+    public BatchRemoteCallable(Config cfgData, Operation... operations) {
+        this.cfgData = cfgData;
+        this.operations = Arrays.asList(operations);
+    }
+
+    public List<Result> call() throws Exception {
+        List<Result> results = new ArrayList<Result>();
+        List<String> selected = Collections.emptyList();
+        Set<String> failed = new HashSet<String>();
+
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+            for (Operation op : operations) {
+                if (op.type == Type.LIST) {
+                    try {
+                        selected = list(client, op);
+                        failed.clear();
+                    } catch (Exception e) {
+                        selected = Collections.emptyList();
+                        results.add(new Result(op.type, null, null, e));
+                    }
+                    continue;
+                }
+                for (String id : op.containerId != null ? Collections.singletonList(op.containerId) : selected) {
+                    if (failed.contains(id)) {
+                        continue;
+                    }
+                    try {
+                        results.add(new Result(op.type, id, execute(client, op, id), null));
+                    } catch (Exception e) {
+                        failed.add(id);
+                        results.add(new Result(op.type, id, null, e));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private static List<String> list(DockerClient client, Operation op) {
+        List<String> ids = new ArrayList<String>();
+        for (Container container : op.filter.apply(client.listContainersCmd()).exec()) {
+            if (op.filter.matches(container)) {
+                ids.add(container.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static ContainerInfo execute(DockerClient client, Operation op, String id) throws Exception {
+        switch (op.type) {
+        case STOP:
+            client.stopContainerCmd(id).exec();
+            return null;
+        case KILL:
+            client.killContainerCmd(id).exec();
+            return null;
+        case REMOVE:
+            client.removeContainerCmd(id).withForce(op.force).withRemoveVolumes(op.removeVolumes).exec();
+            return null;
+        case START:
+            client.startContainerCmd(id).exec();
+            return null;
+        case INSPECT:
+            return ContainerInfo.from(client.inspectContainerCmd(id).exec());
+        case WAIT:
+            try (WaitContainerResultCallback callback = client.waitContainerCmd(id)
+                    .exec(new WaitContainerResultCallback())) {
+                callback.awaitStatusCode(WAIT_TIMEOUT, TimeUnit.SECONDS);
+            } catch (NotFoundException e) {
+                // removed in the meantime, e.g. started with --rm
+            }
+            return null;
+        default:
+            throw new IllegalArgumentException("Unsupported operation " + op.type);
+        }
+    }
+
+    public enum Type {
+        LIST, STOP, KILL, REMOVE, START, INSPECT, WAIT
+    }
+
+    /**
+     * Single operation of the batch. Operations which take container ID apply to each listed container when the ID
+     * is <code>null</code>.
+     */
+    public static final class Operation implements Serializable {
+
+        private static final long serialVersionUID = -6398017540254405413L;
+
+        final Type type;
+        final String containerId;
+        final ContainerFilter filter;
+        final boolean force;
+        final boolean removeVolumes;
+
+        private Operation(Type type, String containerId, ContainerFilter filter, boolean force,
+                boolean removeVolumes) {
+            this.type = type;
+            this.containerId = containerId;
+            this.filter = filter;
+            this.force = force;
+            this.removeVolumes = removeVolumes;
+        }
+
+        /**
+         * Selects containers for the following operations.
+         *
+         * @param showAll
+         *            whether to include stopped containers
+         * @param image
+         *            if not <code>null</code>, selects only containers created from this image
+         */
+        public static Operation list(boolean showAll, String image) {
+            return list(ContainerFilter.byImage(showAll, image));
+        }
+
+        /**
+         * Selects containers for the following operations. The filter is evaluated by the Docker daemon, so that
+         * only the selected containers are transferred.
+         */
+        public static Operation list(ContainerFilter filter) {
+            return new Operation(Type.LIST, null, filter, false, false);
+        }
+
+        public static Operation stop(String containerId) {
+            return new Operation(Type.STOP, containerId, null, false, false);
+        }
+
+        public static Operation kill(String containerId) {
+            return new Operation(Type.KILL, containerId, null, false, false);
+        }
+
+        public static Operation remove(String containerId, boolean force, boolean removeVolumes) {
+            return new Operation(Type.REMOVE, containerId, null, force, removeVolumes);
+        }
+
+        public static Operation start(String containerId) {
+            return new Operation(Type.START, containerId, null, false, false);
+        }
+
+        public static Operation inspect(String containerId) {
+            return new Operation(Type.INSPECT, containerId, null, false, false);
+        }
+
+        /**
+         * Waits until the container is stopped, e.g. after it was killed, as the kill returns before it's done.
+         */
+        public static Operation awaitStop(String containerId) {
+            return new Operation(Type.WAIT, containerId, null, false, false);
+        }
+    }
+
+    /**
+     * Outcome of an operation performed on a single container.
+     */
+    public static final class Result implements Serializable {
+
+        private static final long serialVersionUID = 4913546787101946032L;
+
+        private final Type type;
+        private final String containerId;
+        private final ContainerInfo info;
+        private final String error;
+
+        Result(Type type, String containerId, ContainerInfo info, Exception error) {
+            this.type = type;
+            this.containerId = containerId;
+            this.info = info;
+            this.error = error == null ? null : (error.getMessage() != null ? error.getMessage() : error.toString());
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * @return ID of the container, <code>null</code> for a failed list operation
+         */
+        public String getContainerId() {
+            return containerId;
+        }
+
+        /**
+         * @return container information for inspect operations, <code>null</code> otherwise
+         */
+        public ContainerInfo getInfo() {
+            return info;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
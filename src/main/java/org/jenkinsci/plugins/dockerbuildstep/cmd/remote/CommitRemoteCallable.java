@@ -2,13 +2,11 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.CommitCmd;
 
-import hudson.model.Descriptor;
-
 
 /**
  * A Callable wrapping the commit command.
@@ -21,16 +19,14 @@ public class CommitRemoteCallable extends MasterToSlaveCallable<String, Exceptio
     private static final long serialVersionUID = -8663454265047375486L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
     
     String containerIdRes;
     String repoRes;
     String tagRes;
     String runCmdRes;
     
-    public CommitRemoteCallable(Config cfgData, Descriptor<?> descriptor, String containerIdRes, String repoRes, String tagRes, String runCmdRes) {
+    public CommitRemoteCallable(Config cfgData, String containerIdRes, String repoRes, String tagRes, String runCmdRes) {
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.containerIdRes = containerIdRes;
         this.repoRes = repoRes;
         this.tagRes = tagRes;
@@ -38,10 +34,12 @@ public class CommitRemoteCallable extends MasterToSlaveCallable<String, Exceptio
     }
 
     public String call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
-        CommitCmd commitCmd =
-                client.commitCmd(containerIdRes).withRepository(repoRes).withTag(tagRes).withCmd(runCmdRes);
-        String imageId = commitCmd.exec();
-        return imageId;
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+            CommitCmd commitCmd =
+                    client.commitCmd(containerIdRes).withRepository(repoRes).withTag(tagRes).withCmd(runCmdRes);
+            String imageId = commitCmd.exec();
+            return imageId;
+        }
     }
 }
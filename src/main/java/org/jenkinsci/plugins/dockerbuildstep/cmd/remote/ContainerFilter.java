@@ -0,0 +1,119 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.dockerjava.api.command.ListContainersCmd;
+import com.github.dockerjava.api.model.Container;
+
+/**
+ * Selection of containers which is evaluated by the Docker daemon, so that only matching containers are transferred.
+ * The image is additionally compared exactly with the image the container was created from, as the daemon's
+ * <code>ancestor</code> filter matches also containers of derived images.
+ */
+public final class ContainerFilter implements Serializable {
+
+    private static final long serialVersionUID = -4471532095382250671L;
+
+    private final boolean showAll;
+    private final String image;
+    private final List<String> statuses;
+    private final List<String> labels;
+    private final List<String> names;
+
+    /**
+     * @param showAll
+     *            whether to include stopped containers
+     * @param image
+     *            if not <code>null</code>, selects only containers created from this image
+     * @param statuses
+     *            if not empty, selects only containers in one of these states, e.g. <code>exited</code>
+     * @param labels
+     *            if not empty, selects only containers having all these labels, either <code>key</code> or
+     *            <code>key=value</code>
+     * @param names
+     *            if not empty, selects only containers whose name matches one of these
+     */
+    public ContainerFilter(boolean showAll, String image, List<String> statuses, List<String> labels,
+            List<String> names) {
+        this.showAll = showAll;
+        this.image = image;
+        this.statuses = copy(statuses);
+        this.labels = copy(labels);
+        this.names = copy(names);
+    }
+
+    public static ContainerFilter all(boolean showAll) {
+        return new ContainerFilter(showAll, null, null, null, null);
+    }
+
+    public static ContainerFilter byImage(boolean showAll, String image) {
+        return new ContainerFilter(showAll, image, null, null, null);
+    }
+
+    /**
+     * @return copy of this filter which selects only containers in given states
+     */
+    public ContainerFilter withStatuses(String... statuses) {
+        return new ContainerFilter(true, image, Arrays.asList(statuses), labels, names);
+    }
+
+    /**
+     * @return copy of this filter which selects only containers with given labels and names, both given as comma
+     *         separated lists which may be <code>null</code>, e.g. as entered by the user
+     */
+    public ContainerFilter withLabelsAndNames(String labels, String names) {
+        return withLabelsAndNames(split(labels), split(names));
+    }
+
+    /**
+     * @return copy of this filter which selects only containers with given labels and names, either of which may be
+     *         <code>null</code>
+     */
+    public ContainerFilter withLabelsAndNames(List<String> labels, List<String> names) {
+        return new ContainerFilter(showAll, image, statuses, labels, names);
+    }
+
+    ListContainersCmd apply(ListContainersCmd cmd) {
+        cmd.withShowAll(showAll);
+        if (image != null) {
+            cmd.withAncestorFilter(Collections.singletonList(image));
+        }
+        if (!statuses.isEmpty()) {
+            cmd.withStatusFilter(statuses);
+        }
+        if (!labels.isEmpty()) {
+            cmd.withLabelFilter(labels);
+        }
+        if (!names.isEmpty()) {
+            cmd.withNameFilter(names);
+        }
+        return cmd;
+    }
+
+    boolean matches(Container container) {
+        return image == null || image.equalsIgnoreCase(container.getImage());
+    }
+
+    private static List<String> copy(List<String> values) {
+        return values == null ? Collections.<String> emptyList() : new ArrayList<String>(values);
+    }
+
+    /**
+     * @return non-blank values of given comma separated list, trimmed
+     */
+    public static List<String> split(String values) {
+        List<String> result = new ArrayList<String>();
+        if (values != null) {
+            for (String value : values.split(",")) {
+                if (!value.trim().isEmpty()) {
+                    result.add(value.trim());
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,424 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+
+/**
+ * Live state of the containers of one Docker server, kept up to date by a subscription to the server's event stream.
+ * Callables can ask for the state of a container or wait for a state change without issuing inspect calls or
+ * polling.
+ *
+ * A tracker is started for a server when first asked for and lives in the JVM where the callables are executed, like
+ * {@link DockerClientRegistry}. It resynchronizes with a full container listing whenever it (re)connects, so states
+ * are correct also after events were missed. Only the most recently updated {@link #MAX_CONTAINERS} containers are
+ * kept. Calls to the server are made without holding the tracker's lock, so readers aren't blocked by a slow server.
+ */
+public final class ContainerStateTracker {
+
+    /**
+     * Maximum number of containers whose state is kept per Docker server.
+     */
+    public static final int MAX_CONTAINERS = Integer.getInteger(ContainerStateTracker.class.getName()
+            + ".maxContainers", 2000);
+
+    /**
+     * Longest delay between reconnect attempts in seconds.
+     */
+    static final int MAX_RECONNECT_DELAY = 30;
+
+    private static final ConcurrentMap<Config, ContainerStateTracker> TRACKERS = new ConcurrentHashMap<Config, ContainerStateTracker>();
+
+    private static final ScheduledExecutorService RECONNECTS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Docker event stream reconnect");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Pattern EXIT_CODE = Pattern.compile("Exited \\((-?\\d+)\\)");
+
+    private final Config cfgData;
+
+    private final Map<String, ContainerState> states = new LinkedHashMap<String, ContainerState>(16, 0.75f, false) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ContainerState> eldest) {
+            return size() > MAX_CONTAINERS;
+        }
+    };
+
+    /**
+     * Events received while connecting, applied on top of the listing once it's available.
+     */
+    private final List<Event> pending = new ArrayList<Event>();
+
+    private DockerClientCache.Lease lease;
+    private EventSubscription subscription;
+    private boolean synced;
+    private boolean closed;
+    private int reconnectDelay = 1;
+
+    private ContainerStateTracker(Config cfgData) {
+        this.cfgData = cfgData;
+    }
+
+    /**
+     * @return tracker of given Docker server, subscribed to its events
+     */
+    public static ContainerStateTracker forConfig(Config cfgData) {
+        ContainerStateTracker tracker = TRACKERS.computeIfAbsent(cfgData, ContainerStateTracker::new);
+        tracker.ensureConnected();
+        return tracker;
+    }
+
+    /**
+     * Stops all trackers of this JVM.
+     */
+    public static void shutdown() {
+        for (ContainerStateTracker tracker : TRACKERS.values()) {
+            tracker.close();
+        }
+        TRACKERS.clear();
+    }
+
+    /**
+     * @return last known state of given container, <code>null</code> if it's unknown, e.g. because the tracker isn't
+     *         synchronized with the server yet or the container doesn't exist
+     */
+    public synchronized ContainerState get(String id) {
+        if (!synced) {
+            return null;
+        }
+        ContainerState state = states.get(id);
+        if (state == null && id != null) {
+            // short IDs and names, as accepted by the API
+            for (ContainerState candidate : states.values()) {
+                if (candidate.matches(id)) {
+                    return candidate;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * @return true if the tracker is subscribed to the server's events and has the state of all containers
+     */
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Waits until the state of given container satisfies the condition. The condition is tested with
+     * <code>null</code> while the container is unknown. It isn't tested while the tracker isn't synchronized, e.g.
+     * after it lost its connection, so callers should check {@link #isSynced()} when nothing is returned.
+     *
+     * @return the state satisfying the condition, <code>null</code> if it didn't happen within the timeout or the
+     *         tracker was shut down
+     */
+    public synchronized ContainerState await(String id, Predicate<ContainerState> condition, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            ContainerState state = get(id);
+            if (synced && condition.test(state)) {
+                return state;
+            }
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0 || closed) {
+                return null;
+            }
+            wait(remaining);
+        }
+    }
+
+    private void ensureConnected() {
+        EventSubscription attempt;
+        synchronized (this) {
+            if (subscription != null || closed) {
+                // connected, connecting in another thread or shut down
+                return;
+            }
+            attempt = new EventSubscription();
+            subscription = attempt;
+            pending.clear();
+        }
+        try {
+            DockerClient client = lease().getClient();
+            // subscribe before listing, so that no change between the two is missed
+            client.eventsCmd().withEventTypeFilter("container").exec(attempt);
+            Map<String, ContainerState> listed = new LinkedHashMap<String, ContainerState>();
+            for (Container container : client.listContainersCmd().withShowAll(true).exec()) {
+                listed.put(container.getId(), ContainerState.from(container));
+            }
+            if (synced(attempt, listed)) {
+                return;
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Cannot subscribe to events of " + cfgData.dockerUrlRes, e);
+            disconnected(attempt);
+        }
+        // failed, or closed or replaced meanwhile
+        try {
+            attempt.close();
+        } catch (IOException closeError) {
+            // closing anyway
+        }
+    }
+
+    private synchronized DockerClientCache.Lease lease() {
+        if (closed) {
+            throw new IllegalStateException("Tracker of " + cfgData.dockerUrlRes + " is shut down");
+        }
+        if (lease == null) {
+            lease = DockerClientRegistry.acquireStreaming(cfgData, null);
+        }
+        return lease;
+    }
+
+    /**
+     * Replaces the states by the listing and the events received since subscribing.
+     *
+     * @return false if the subscription isn't current anymore
+     */
+    private synchronized boolean synced(EventSubscription attempt, Map<String, ContainerState> listed) {
+        if (subscription != attempt) {
+            return false;
+        }
+        states.clear();
+        states.putAll(listed);
+        for (Event event : pending) {
+            apply(event);
+        }
+        pending.clear();
+        synced = true;
+        reconnectDelay = 1;
+        notifyAll();
+        return true;
+    }
+
+    private synchronized void onEvent(EventSubscription source, Event event) {
+        if (subscription != source) {
+            return;
+        }
+        if (!synced) {
+            pending.add(event);
+            return;
+        }
+        apply(event);
+        notifyAll();
+    }
+
+    private void apply(Event event) {
+        String id = event.getId() != null ? event.getId() : (event.getActor() != null ? event.getActor().getId()
+                : null);
+        String action = event.getAction() != null ? event.getAction() : event.getStatus();
+        if (id == null || action == null) {
+            return;
+        }
+        Map<String, String> attributes = event.getActor() != null ? event.getActor().getAttributes() : null;
+        String name = attributes != null ? attributes.get("name") : null;
+
+        ContainerState previous = states.remove(id);
+        ContainerState next = (previous != null ? previous : new ContainerState(id, name, "created", null, null))
+                .apply(action, attributes);
+        if (next != null) {
+            states.put(id, next);
+        }
+    }
+
+    private synchronized void disconnected(EventSubscription failed) {
+        if (subscription != failed) {
+            // already replaced
+            return;
+        }
+        subscription = null;
+        synced = false;
+        pending.clear();
+        notifyAll();
+        if (closed) {
+            return;
+        }
+        int delay = reconnectDelay;
+        reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+        RECONNECTS.schedule(this::ensureConnected, delay, TimeUnit.SECONDS);
+    }
+
+    private synchronized void close() {
+        closed = true;
+        if (subscription != null) {
+            try {
+                subscription.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+            subscription = null;
+        }
+        if (lease != null) {
+            lease.close();
+            lease = null;
+        }
+        synced = false;
+        states.clear();
+        pending.clear();
+        notifyAll();
+    }
+
+    private class EventSubscription extends ResultCallback.Adapter<Event> {
+        @Override
+        public void onNext(Event event) {
+            onEvent(this, event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOGGER.log(Level.FINE, "Event stream of " + cfgData.dockerUrlRes + " failed", throwable);
+            disconnected(this);
+        }
+
+        @Override
+        public void onComplete() {
+            disconnected(this);
+        }
+    }
+
+    /**
+     * State of a single container.
+     */
+    public static final class ContainerState implements Serializable {
+
+        private static final long serialVersionUID = 3907115215218867051L;
+
+        private final String id;
+        private final String name;
+        private final String status;
+        private final String health;
+        private final Integer exitCode;
+
+        ContainerState(String id, String name, String status, String health, Integer exitCode) {
+            this.id = id;
+            this.name = name != null && name.startsWith("/") ? name.substring(1) : name;
+            this.status = status;
+            this.health = health;
+            this.exitCode = exitCode;
+        }
+
+        static ContainerState from(Container container) {
+            String name = container.getNames() != null && container.getNames().length > 0 ? container.getNames()[0]
+                    : null;
+            String text = container.getStatus() != null ? container.getStatus() : "";
+            Matcher m = EXIT_CODE.matcher(text);
+            Integer exitCode = m.find() ? Integer.valueOf(m.group(1)) : null;
+            String health = text.contains("(healthy)") ? "healthy" : text.contains("(unhealthy)") ? "unhealthy"
+                    : text.contains("(health: starting)") ? "starting" : null;
+            return new ContainerState(container.getId(), name, container.getState(), health, exitCode);
+        }
+
+        public static ContainerState from(InspectContainerResponse inspect) {
+            InspectContainerResponse.ContainerState state = inspect.getState();
+            String health = state.getHealth() != null ? state.getHealth().getStatus() : null;
+            Long exitCode = state.getExitCodeLong();
+            boolean exited = "exited".equals(state.getStatus()) || "dead".equals(state.getStatus());
+            return new ContainerState(inspect.getId(), inspect.getName(), state.getStatus(), health,
+                    exited && exitCode != null ? Integer.valueOf(exitCode.intValue()) : null);
+        }
+
+        /**
+         * @return state after given event, <code>null</code> if the container was removed
+         */
+        ContainerState apply(String action, Map<String, String> attributes) {
+            if (action.startsWith("health_status")) {
+                String value = action.substring(action.indexOf(':') + 1).trim();
+                return new ContainerState(id, name, status, value, exitCode);
+            }
+            switch (action) {
+            case "create":
+                return new ContainerState(id, name, "created", null, null);
+            case "start":
+            case "restart":
+            case "unpause":
+                return new ContainerState(id, name, "running", "start".equals(action) ? null : health, null);
+            case "pause":
+                return new ContainerState(id, name, "paused", health, exitCode);
+            case "die":
+                String code = attributes != null ? attributes.get("exitCode") : null;
+                return new ContainerState(id, name, "exited", null, code != null && code.matches("-?\\d+")
+                        ? Integer.valueOf(code) : exitCode);
+            case "destroy":
+                return null;
+            default:
+                return this;
+            }
+        }
+
+        boolean matches(String idOrName) {
+            return id.startsWith(idOrName) || idOrName.equals(name)
+                    || (idOrName.startsWith("/") && idOrName.substring(1).equals(name));
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return one of <code>created</code>, <code>running</code>, <code>paused</code>, <code>restarting</code>,
+         *         <code>exited</code>, <code>removing</code> or <code>dead</code>
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isRunning() {
+            return "running".equals(status);
+        }
+
+        /**
+         * @return health check status, <code>null</code> if the container has no health check or it's unknown
+         */
+        public String getHealth() {
+            return health;
+        }
+
+        /**
+         * @return exit code of the last run, <code>null</code> if the container didn't exit or it's unknown
+         */
+        public Integer getExitCode() {
+            return exitCode;
+        }
+
+        @Override
+        public String toString() {
+            return status + (health != null ? " (" + health + ")" : "") + (exitCode != null ? ", exit code "
+                    + exitCode : "");
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ContainerStateTracker.class.getName());
+}
@@ -5,8 +5,8 @@ import java.util.Map;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.BuildImageCmd;
@@ -17,7 +17,6 @@ import com.github.dockerjava.core.command.BuildImageResultCallback;
 import hudson.model.BuildListener;
 import hudson.FilePath;
 import hudson.model.BuildListener;
-import hudson.model.Descriptor;
 
 /**
  * A Callable wrapping the commands necessary to create an image.
@@ -32,7 +31,6 @@ public class CreateImageRemoteCallable extends MasterToSlaveCallable<String, Exc
     BuildListener listener;
 
     Config cfgData;
-    Descriptor<?> descriptor;
 
     String expandedDockerFolder;
     String expandedImageTag;
@@ -41,7 +39,7 @@ public class CreateImageRemoteCallable extends MasterToSlaveCallable<String, Exc
     boolean pull;
     boolean noCache;
     boolean rm;
-    public CreateImageRemoteCallable(BuildListener listener, Config cfgData, Descriptor<?> descriptor, String expandedDockerFolder, String expandedImageTag, String dockerFileRes, Map<String, String> buildArgsMap, boolean pull, boolean noCache, boolean rm) {
+    public CreateImageRemoteCallable(BuildListener listener, Config cfgData, String expandedDockerFolder, String expandedImageTag, String dockerFileRes, Map<String, String> buildArgsMap, boolean pull, boolean noCache, boolean rm) {
         this.listener = listener;
         this.expandedDockerFolder = expandedDockerFolder;
         this.expandedImageTag = expandedImageTag;
@@ -51,7 +49,6 @@ public class CreateImageRemoteCallable extends MasterToSlaveCallable<String, Exc
         this.pull = pull;
         this.noCache = noCache;
         this.rm = rm;
-        this.descriptor = descriptor;
     }
 
     public String call() throws Exception {
@@ -86,22 +83,24 @@ public class CreateImageRemoteCallable extends MasterToSlaveCallable<String, Exc
             }
         };
 
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
-        BuildImageCmd buildImageCmd = client
-                .buildImageCmd(docker)
-                .withTag(expandedImageTag)
-                .withPull(pull)
-                .withNoCache(noCache)
-                .withRemove(rm);
-        if (!buildArgsMap.isEmpty()) {
-            for (final Map.Entry<String, String> entry : buildArgsMap.entrySet()) {
-                buildImageCmd = buildImageCmd.withBuildArg(entry.getKey(), entry.getValue());
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+            BuildImageCmd buildImageCmd = client
+                    .buildImageCmd(docker)
+                    .withTag(expandedImageTag)
+                    .withPull(pull)
+                    .withNoCache(noCache)
+                    .withRemove(rm);
+            if (!buildArgsMap.isEmpty()) {
+                for (final Map.Entry<String, String> entry : buildArgsMap.entrySet()) {
+                    buildImageCmd = buildImageCmd.withBuildArg(entry.getKey(), entry.getValue());
+                }
             }
-        }
 
-        BuildImageResultCallback result = buildImageCmd.exec(callback);
+            BuildImageResultCallback result = buildImageCmd.exec(callback);
 
-        return result.awaitImageId();
+            return result.awaitImageId();
+        }
     }
 
     private boolean exist(FilePath filePath) throws DockerException {
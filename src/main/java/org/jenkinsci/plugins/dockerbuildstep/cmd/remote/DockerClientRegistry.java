@@ -0,0 +1,87 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientFactory;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.AuthConfig;
+
+import hudson.remoting.Channel;
+
+/**
+ * Holder of the Docker clients used by the remote callables. It lives in the JVM where the callables are executed,
+ * typically the agent, so that subsequent steps and builds running on the same agent reuse warm connections instead
+ * of creating a new client for every remoting call. Clients are created solely from the {@link Config} sent with
+ * the callable, so no Jenkins instance is needed. Callables acquire their client as a lease, so that it isn't closed
+ * under them when it's evicted.
+ *
+ * All clients are closed once the channel which delivered the callables is closed.
+ */
+public final class DockerClientRegistry {
+
+    private static final DockerClientCache CLIENTS = new DockerClientCache();
+
+    private static final Set<Channel> WATCHED_CHANNELS = Collections.synchronizedSet(Collections
+            .newSetFromMap(new WeakHashMap<Channel, Boolean>()));
+
+    private DockerClientRegistry() {
+    }
+
+    /**
+     * Returns shared client for given configuration which is guaranteed not to be closed until the lease is closed.
+     */
+    public static DockerClientCache.Lease acquire(Config cfgData, AuthConfig authConfig) {
+        watchCurrentChannel();
+        return CLIENTS.acquire(key(cfgData, authConfig), factory(cfgData, authConfig));
+    }
+
+    /**
+     * Same as {@link #acquire(Config, AuthConfig)}, but the client has no response timeout. Use for following
+     * streams which may be silent for a long time, like events or container output, so that they aren't cut off.
+     */
+    public static DockerClientCache.Lease acquireStreaming(Config cfgData, AuthConfig authConfig) {
+        return acquire(cfgData.withoutResponseTimeout(), authConfig);
+    }
+
+    private static DockerClientCache.Key key(Config cfgData, AuthConfig authConfig) {
+        return new DockerClientCache.Key(cfgData, authConfig);
+    }
+
+    private static Callable<DockerClient> factory(final Config cfgData, final AuthConfig authConfig) {
+        return () -> DockerClientFactory.create(cfgData, authConfig);
+    }
+
+    /**
+     * Closes all clients held by this JVM.
+     */
+    public static void shutdown() {
+        CLIENTS.invalidateAll();
+    }
+
+    private static void watchCurrentChannel() {
+        Channel channel = Channel.current();
+        if (channel == null || !WATCHED_CHANNELS.add(channel)) {
+            // executed locally on the controller or already watched
+            return;
+        }
+        channel.addListener(new Channel.Listener() {
+            @Override
+            public void onClosed(Channel channel, IOException cause) {
+                LOGGER.fine("Channel " + channel.getName() + " closed, closing Docker clients");
+                WATCHED_CHANNELS.remove(channel);
+                ContainerStateTracker.shutdown();
+                shutdown();
+            }
+        });
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(DockerClientRegistry.class.getName());
+}
@@ -0,0 +1,96 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jenkins.security.MasterToSlaveCallable;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.model.Info;
+
+
+/**
+ * A Callable asking several Docker servers for their current load. The servers are queried in parallel, so that an
+ * unreachable one doesn't delay the others.
+ * It can be sent through a Channel to execute on the correct build node.
+ */
+public class EndpointLoadRemoteCallable extends MasterToSlaveCallable<List<EndpointLoadRemoteCallable.Load>, Exception> {
+
+    private static final long serialVersionUID = -3158907735604928851L;
+
+    List<Config> endpoints;
+
+    public EndpointLoadRemoteCallable(List<Config> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public List<Load> call() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(endpoints.size());
+        try {
+            List<Future<Load>> futures = new ArrayList<Future<Load>>();
+            for (final Config cfgData : endpoints) {
+                futures.add(executor.submit(() -> {
+                    try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+                        Info info = lease.getClient().infoCmd().exec();
+                        return new Load(info.getContainersRunning(), info.getMemTotal(), null);
+                    }
+                }));
+            }
+            List<Load> loads = new ArrayList<Load>();
+            for (Future<Load> future : futures) {
+                try {
+                    loads.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    loads.add(new Load(null, null, cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+                }
+            }
+            return loads;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Load of a single Docker server.
+     */
+    public static final class Load implements Serializable {
+
+        private static final long serialVersionUID = 2301297305916342785L;
+
+        private final Integer runningContainers;
+        private final Long memTotal;
+        private final String error;
+
+        public Load(Integer runningContainers, Long memTotal, String error) {
+            this.runningContainers = runningContainers;
+            this.memTotal = memTotal;
+            this.error = error;
+        }
+
+        public int getRunningContainers() {
+            return runningContainers == null ? 0 : runningContainers;
+        }
+
+        /**
+         * @return total memory in bytes, <code>null</code> if unknown
+         */
+        public Long getMemTotal() {
+            return memTotal;
+        }
+
+        public boolean isReachable() {
+            return error == null;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -2,12 +2,10 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 
-import hudson.model.Descriptor;
-
 
 /**
  * A Callable wrapping the kill container command.
@@ -20,23 +18,23 @@ public class KillContainerRemoteCallable extends MasterToSlaveCallable<Void, Exc
     private static final long serialVersionUID = 1536648869989705828L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
 
     String id;
     
     
-    public KillContainerRemoteCallable(Config cfgData, Descriptor<?> descriptor, String id) {
+    public KillContainerRemoteCallable(Config cfgData, String id) {
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.id = id;
     }
 
     public Void call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
 
-        client.killContainerCmd(id).exec();
+            client.killContainerCmd(id).exec();
         
-        return null;
+            return null;
+        }
     }
     
 }
@@ -0,0 +1,90 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jenkins.security.MasterToSlaveCallable;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.DockerClient;
+
+
+/**
+ * A Callable measuring latency of Docker API calls from a build node to several Docker servers. Each server is pinged
+ * once to open the connection, and then the given number of times. The servers are measured one after another, so
+ * that the measurements don't affect each other.
+ * It can be sent through a Channel to execute on the correct build node.
+ */
+public class LatencyRemoteCallable extends MasterToSlaveCallable<List<LatencyRemoteCallable.Latency>, Exception> {
+
+    private static final long serialVersionUID = 5702583217640194318L;
+
+    List<Config> servers;
+
+    int samples;
+
+    public LatencyRemoteCallable(List<Config> servers, int samples) {
+        this.servers = servers;
+        this.samples = samples;
+    }
+
+    public List<Latency> call() throws Exception {
+        List<Latency> latencies = new ArrayList<Latency>();
+        for (Config cfgData : servers) {
+            try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+                DockerClient client = lease.getClient();
+                client.pingCmd().exec();
+                long[] micros = new long[samples];
+                for (int i = 0; i < samples; i++) {
+                    long start = System.nanoTime();
+                    client.pingCmd().exec();
+                    micros[i] = (System.nanoTime() - start) / 1000;
+                }
+                Arrays.sort(micros);
+                latencies.add(new Latency(micros[samples / 2], null));
+            } catch (Exception e) {
+                latencies.add(new Latency(-1, e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+        }
+        return latencies;
+    }
+
+    /**
+     * Median latency of a single Docker server.
+     */
+    public static final class Latency implements Serializable {
+
+        private static final long serialVersionUID = -1883705482951357702L;
+
+        private final long medianMicros;
+        private final String error;
+
+        public Latency(long medianMicros, String error) {
+            this.medianMicros = medianMicros;
+            this.error = error;
+        }
+
+        /**
+         * @return median latency in microseconds, -1 if the server isn't reachable
+         */
+        public long getMedianMicros() {
+            return medianMicros;
+        }
+
+        public boolean isReachable() {
+            return error == null;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return isReachable() ? String.format("%.2f ms", medianMicros / 1000.0) : "unreachable (" + error + ")";
+        }
+    }
+}
@@ -4,13 +4,11 @@ import java.util.List;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.model.Container;
 
-import hudson.model.Descriptor;
-
 
 /**
  * A Callable wrapping the list containers command.
@@ -23,21 +21,21 @@ public class ListContainersRemoteCallable extends MasterToSlaveCallable<List<Con
     private static final long serialVersionUID = 8479489609579635741L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
     
     boolean showAll;
     
-    public ListContainersRemoteCallable(Config cfgData, Descriptor<?> descriptor, boolean showAll) {
+    public ListContainersRemoteCallable(Config cfgData, boolean showAll) {
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.showAll = showAll;
     }
     
     public List<Container> call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
 
-        List<Container> containers = client.listContainersCmd().withShowAll(showAll).exec();
-        return containers;
+            List<Container> containers = client.listContainersCmd().withShowAll(showAll).exec();
+            return containers;
+        }
     }
     
 }
@@ -0,0 +1,136 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jenkins.security.MasterToSlaveCallable;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.PruneCmd;
+import com.github.dockerjava.api.model.PruneResponse;
+import com.github.dockerjava.api.model.PruneType;
+
+
+/**
+ * A Callable removing unused containers, volumes, networks or dangling images with one prune call per resource type.
+ * It can be sent through a Channel to execute on the correct build node.
+ *
+ * A failed prune call doesn't stop pruning of the remaining resource types.
+ */
+public class PruneRemoteCallable extends MasterToSlaveCallable<List<PruneRemoteCallable.Result>, Exception> {
+
+    private static final long serialVersionUID = -3318054716245598370L;
+
+    Config cfgData;
+
+    List<PruneType> types;
+
+    List<String> labels;
+
+    String until;
+
+    /**
+     * @param labels
+     *            if not empty, prunes only resources having all these labels, either <code>key</code> or
+     *            <code>key=value</code>
+     * @param until
+     *            if not <code>null</code>, prunes only resources created before this timestamp or duration, e.g.
+     *            <code>24h</code>. It's ignored for volumes, which don't support it.
+     */
+    public PruneRemoteCallable(Config cfgData, List<PruneType> types, List<String> labels, String until) {
+        this.cfgData = cfgData;
+        this.types = new ArrayList<PruneType>(types);
+        this.labels = labels == null ? new ArrayList<String>() : new ArrayList<String>(labels);
+        this.until = until;
+    }
+
+    public List<Result> call() throws Exception {
+        List<Result> results = new ArrayList<Result>();
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+            for (PruneType type : types) {
+                long start = System.nanoTime();
+                try {
+                    PruneResponse response = prune(client, type).exec();
+                    Long reclaimed = response.getSpaceReclaimed();
+                    results.add(new Result(type.name(), reclaimed == null ? 0 : reclaimed, millisSince(start), null));
+                } catch (Exception e) {
+                    results.add(new Result(type.name(), 0, millisSince(start),
+                            e.getMessage() != null ? e.getMessage() : e.toString()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private PruneCmd prune(DockerClient client, PruneType type) {
+        PruneCmd cmd = client.pruneCmd(type);
+        if (!labels.isEmpty()) {
+            cmd.withLabelFilter(labels.toArray(new String[labels.size()]));
+        }
+        if (until != null && type != PruneType.VOLUMES) {
+            cmd.withUntilFilter(until);
+        }
+        if (type == PruneType.IMAGES) {
+            cmd.withDangling(true);
+        }
+        return cmd;
+    }
+
+    private static long millisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    /**
+     * Outcome of pruning one resource type.
+     */
+    public static final class Result implements Serializable {
+
+        private static final long serialVersionUID = 6690184352510732145L;
+
+        private final String type;
+        private final long spaceReclaimed;
+        private final long millis;
+        private final String error;
+
+        public Result(String type, long spaceReclaimed, long millis, String error) {
+            this.type = type;
+            this.spaceReclaimed = spaceReclaimed;
+            this.millis = millis;
+            this.error = error;
+        }
+
+        /**
+         * @return pruned resource type, e.g. <code>CONTAINERS</code>
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return reclaimed disk space in bytes
+         */
+        public long getSpaceReclaimed() {
+            return spaceReclaimed;
+        }
+
+        /**
+         * @return how long the prune call took in milliseconds
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -2,8 +2,8 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.PushImageCmd;
@@ -12,7 +12,6 @@ import com.github.dockerjava.api.model.PushResponseItem;
 import com.github.dockerjava.core.command.PushImageResultCallback;
 
 import hudson.model.BuildListener;
-import hudson.model.Descriptor;
 
 
 /**
@@ -28,16 +27,14 @@ public class PushImageRemoteCallable extends MasterToSlaveCallable<Void, Excepti
     BuildListener listener;
     
     Config cfgData;
-    Descriptor<?> descriptor;
     AuthConfig authConfig;
     
     String imageRes;
     String tagRes;
 
-    public PushImageRemoteCallable(BuildListener listener, Config cfgData, Descriptor<?> descriptor, AuthConfig authConfig, String imageRes, String tagRes) {
+    public PushImageRemoteCallable(BuildListener listener, Config cfgData, AuthConfig authConfig, String imageRes, String tagRes) {
         this.listener = listener;
     	this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.authConfig = authConfig;
         this.imageRes = imageRes;
         this.tagRes = tagRes;
@@ -45,28 +42,30 @@ public class PushImageRemoteCallable extends MasterToSlaveCallable<Void, Excepti
 
     public Void call() throws Exception {
         final ConsoleLogger console = new ConsoleLogger(listener);
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, authConfig);
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, authConfig)) {
+            DockerClient client = lease.getClient();
 
-        PushImageCmd pushImageCmd = client.pushImageCmd(imageRes).withTag(tagRes);
-        PushImageResultCallback callback = new PushImageResultCallback() {
-            @Override
-            public void onNext(PushResponseItem item) {
-                String text = item.getStream();
-                if (text != null) {
-                    console.logInfo(text);
+            PushImageCmd pushImageCmd = client.pushImageCmd(imageRes).withTag(tagRes);
+            PushImageResultCallback callback = new PushImageResultCallback() {
+                @Override
+                public void onNext(PushResponseItem item) {
+                    String text = item.getStream();
+                    if (text != null) {
+                        console.logInfo(text);
+                    }
+                    super.onNext(item);
                 }
-                super.onNext(item);
-            }
 
-            @Override
-            public void onError(Throwable throwable) {
-                console.logError("Failed to exec start:" + throwable.getMessage());
-                super.onError(throwable);
-            }
-        };
-        pushImageCmd.exec(callback).awaitSuccess();
-        
-        return null;
+                @Override
+                public void onError(Throwable throwable) {
+                    console.logError("Failed to exec start:" + throwable.getMessage());
+                    super.onError(throwable);
+                }
+            };
+            pushImageCmd.exec(callback).awaitSuccess();
+
+            return null;
+        }
     }
     
 }
@@ -2,12 +2,10 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 
-import hudson.model.Descriptor;
-
 
 /**
  * A Callable wrapping the remove image command.
@@ -20,28 +18,28 @@ public class RemoveImageRemoteCallable extends MasterToSlaveCallable<Void, Excep
     private static final long serialVersionUID = 1536648869989705828L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
     
     String imageNameRes;
     String imageIdRes;
     
-    public RemoveImageRemoteCallable(Config cfgData, Descriptor<?> descriptor, String imageNameRes, String imageIdRes) {
+    public RemoveImageRemoteCallable(Config cfgData, String imageNameRes, String imageIdRes) {
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.imageNameRes = imageNameRes;
         this.imageIdRes = imageIdRes;
     }
 
     public Void call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
-
-        if (imageIdRes == null || imageIdRes.isEmpty()) {
-            client.removeImageCmd(imageNameRes).exec();
-        } else {
-            client.removeImageCmd(imageNameRes).withImageId(imageIdRes).exec();
-        }
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+
+            if (imageIdRes == null || imageIdRes.isEmpty()) {
+                client.removeImageCmd(imageNameRes).exec();
+            } else {
+                client.removeImageCmd(imageNameRes).withImageId(imageIdRes).exec();
+            }
         
-        return null;
+            return null;
+        }
     }
     
 }
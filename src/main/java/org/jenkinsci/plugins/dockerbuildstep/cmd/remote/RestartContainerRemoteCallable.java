@@ -2,12 +2,10 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 
-import hudson.model.Descriptor;
-
 
 /**
  * A Callable wrapping the restart container command.
@@ -20,28 +18,28 @@ public class RestartContainerRemoteCallable extends MasterToSlaveCallable<Void,
     private static final long serialVersionUID = 1536648869989705828L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
     
     String id;
     Integer timeout;
     
-    public RestartContainerRemoteCallable(Config cfgData, Descriptor<?> descriptor, String id, Integer timeout) {
+    public RestartContainerRemoteCallable(Config cfgData, String id, Integer timeout) {
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.id = id;
         this.timeout = timeout;
     }
 
     public Void call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
-
-        if (timeout == null) {
-            client.restartContainerCmd(id).exec();
-        } else {
-            client.restartContainerCmd(id).withtTimeout(timeout).exec();
-        }
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+
+            if (timeout == null) {
+                client.restartContainerCmd(id).exec();
+            } else {
+                client.restartContainerCmd(id).withtTimeout(timeout).exec();
+            }
         
-        return null;
+            return null;
+        }
     }
     
 }
@@ -7,12 +7,10 @@ import java.io.OutputStream;
 import jenkins.security.MasterToSlaveCallable;
 import org.apache.commons.io.IOUtils;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 
-import hudson.model.Descriptor;
-
 
 /**
  * A Callable wrapping the save image command.
@@ -25,18 +23,16 @@ public class SaveImageRemoteCallable extends MasterToSlaveCallable<Void, Excepti
     private static final long serialVersionUID = -6899484703281434847L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
     
     String destinationRes;
     String filenameRes;
     String imageNameRes;
     String imageTagRes;
     
-    public SaveImageRemoteCallable(Config cfgData, Descriptor<?> descriptor, String destinationRes, String filenameRes,
+    public SaveImageRemoteCallable(Config cfgData, String destinationRes, String filenameRes,
             String imageNameRes, String imageTagRes) {
         super();
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.destinationRes = destinationRes;
         this.filenameRes = filenameRes;
         this.imageNameRes = imageNameRes;
@@ -44,22 +40,24 @@ public class SaveImageRemoteCallable extends MasterToSlaveCallable<Void, Excepti
     }
 
     public Void call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
-        
-        if (!new File(destinationRes).exists()) {
-            throw new IllegalArgumentException(
-                    "Destination is not a valid path");
-        }
-        
-        final OutputStream output = new FileOutputStream(new File(
-                destinationRes + "/" + filenameRes));
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+
+            if (!new File(destinationRes).exists()) {
+                throw new IllegalArgumentException(
+                        "Destination is not a valid path");
+            }
 
-        IOUtils.copy(client.saveImageCmd(imageNameRes + ":" + imageTagRes)
-                .exec(), output);
+            final OutputStream output = new FileOutputStream(new File(
+                    destinationRes + "/" + filenameRes));
 
-        IOUtils.closeQuietly(output);
-        
-        return null;
+            IOUtils.copy(client.saveImageCmd(imageNameRes + ":" + imageTagRes)
+                    .exec(), output);
+
+            IOUtils.closeQuietly(output);
+
+            return null;
+        }
     }
     
 }
\ No newline at end of file
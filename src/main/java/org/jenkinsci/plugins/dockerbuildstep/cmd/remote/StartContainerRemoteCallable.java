@@ -2,15 +2,12 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.action.ContainerInfo;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.InspectContainerResponse;
 
-import hudson.model.Descriptor;
-
 
 /**
  * A Callable wrapping the start container command.
@@ -18,31 +15,28 @@ import hudson.model.Descriptor;
  * 
  * @author David Csakvari
  */
-public class StartContainerRemoteCallable extends MasterToSlaveCallable<String, Exception> {
+public class StartContainerRemoteCallable extends MasterToSlaveCallable<ContainerInfo, Exception> {
 
     private static final long serialVersionUID = 8479489609579635741L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
     
     String id;
     
-    public StartContainerRemoteCallable(Config cfgData, Descriptor<?> descriptor, String id) {
+    public StartContainerRemoteCallable(Config cfgData, String id) {
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.id = id;
     }
     
-    public String call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
+    public ContainerInfo call() throws Exception {
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
 
-        client.startContainerCmd(id).exec();
-        InspectContainerResponse inspectResp = client.inspectContainerCmd(id).exec();
+            client.startContainerCmd(id).exec();
+            InspectContainerResponse inspectResp = client.inspectContainerCmd(id).exec();
 
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        String serialized = mapper.writeValueAsString(inspectResp);
-        return serialized;
+            return ContainerInfo.from(inspectResp);
+        }
     }
     
 }
@@ -0,0 +1,299 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jenkins.security.MasterToSlaveCallable;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.RestartContainerCmd;
+import com.github.dockerjava.api.command.StopContainerCmd;
+import com.github.dockerjava.api.exception.ConflictException;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.exception.NotModifiedException;
+
+
+/**
+ * A Callable stopping, killing or restarting several containers concurrently within one overall deadline.
+ * Containers which haven't stopped when the deadline passes are killed. Containers still waiting for their turn because
+ * of the parallelism limit are killed too, or, when restarting, killed and started again.
+ * It can be sent through a Channel to execute on the correct build node.
+ *
+ * In teardown mode, each container is stopped and then force-removed, and containers which don't exist anymore
+ * aren't considered failures.
+ */
+public class StopContainersRemoteCallable extends MasterToSlaveCallable<List<StopContainersRemoteCallable.Result>, Exception> {
+
+    private static final long serialVersionUID = 7163529930582367114L;
+
+    /**
+     * How long to wait for a stop or restart call to return after its container was killed, in seconds.
+     */
+    static final int KILL_GRACE = 10;
+
+    // handling of a single container, containers still pending when the deadline passes are skipped
+    private static final int PENDING = 0;
+    private static final int BEGUN = 1;
+    private static final int SKIPPED = 2;
+
+    public enum Mode {
+        STOP, KILL, RESTART, TEARDOWN
+    }
+
+    public enum Status {
+        DONE, KILLED_AT_DEADLINE, GONE, FAILED
+    }
+
+    Config cfgData;
+
+    Mode mode;
+
+    List<String> ids;
+
+    int stopTimeout;
+
+    int deadline;
+
+    int parallelism;
+
+    boolean removeVolumes;
+
+    /**
+     * @param stopTimeout
+     *            seconds the daemon waits for a container to stop before killing it, daemon default if not positive
+     * @param deadline
+     *            seconds after which all containers still stopping are killed, no deadline if not positive
+     * @param parallelism
+     *            maximum number of containers handled at the same time, all of them if not positive
+     * @param removeVolumes
+     *            whether teardown removes also the volumes of the containers
+     */
+    public StopContainersRemoteCallable(Config cfgData, Mode mode, List<String> ids, int stopTimeout, int deadline,
+            int parallelism, boolean removeVolumes) {
+        this.cfgData = cfgData;
+        this.mode = mode;
+        this.ids = new ArrayList<String>(ids);
+        this.stopTimeout = stopTimeout;
+        this.deadline = deadline;
+        this.parallelism = parallelism;
+        this.removeVolumes = removeVolumes;
+    }
+
+    public StopContainersRemoteCallable(Config cfgData, Mode mode, List<String> ids, int stopTimeout, int deadline,
+            int parallelism) {
+        this(cfgData, mode, ids, stopTimeout, deadline, parallelism, false);
+    }
+
+    public List<Result> call() throws Exception {
+        if (ids.isEmpty()) {
+            return new ArrayList<Result>();
+        }
+        long start = System.nanoTime();
+        long deadlineNanos = deadline > 0 && mode != Mode.KILL ? start + TimeUnit.SECONDS.toNanos(deadline)
+                : Long.MAX_VALUE;
+
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            final DockerClient client = lease.getClient();
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism > 0 ? Math.min(parallelism,
+                    ids.size()) : ids.size());
+            try {
+                List<Future<Result>> futures = new ArrayList<Future<Result>>();
+                List<AtomicInteger> states = new ArrayList<AtomicInteger>();
+                for (final String id : ids) {
+                    final AtomicInteger state = new AtomicInteger(PENDING);
+                    states.add(state);
+                    futures.add(executor.submit(() -> {
+                        if (!state.compareAndSet(PENDING, BEGUN)) {
+                            return null;
+                        }
+                        long started = System.nanoTime();
+                        return new Result(id, perform(client, id), millisSince(started), null);
+                    }));
+                }
+
+                List<Result> results = new ArrayList<Result>();
+                for (int i = 0; i < ids.size(); i++) {
+                    results.add(await(client, ids.get(i), futures.get(i), states.get(i), states, start,
+                            deadlineNanos));
+                }
+                return results;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private Status perform(DockerClient client, String id) {
+        switch (mode) {
+        case STOP:
+            stop(client, id);
+            break;
+        case KILL:
+            client.killContainerCmd(id).exec();
+            break;
+        case RESTART:
+            RestartContainerCmd restartCmd = client.restartContainerCmd(id);
+            if (stopTimeout > 0) {
+                restartCmd.withtTimeout(stopTimeout);
+            }
+            restartCmd.exec();
+            break;
+        case TEARDOWN:
+            try {
+                stop(client, id);
+            } catch (NotModifiedException e) {
+                // already stopped
+            } catch (NotFoundException e) {
+                return Status.GONE;
+            }
+            return remove(client, id);
+        default:
+            throw new IllegalArgumentException("Unsupported mode " + mode);
+        }
+        return Status.DONE;
+    }
+
+    private void stop(DockerClient client, String id) {
+        StopContainerCmd stopCmd = client.stopContainerCmd(id);
+        if (stopTimeout > 0) {
+            stopCmd.withTimeout(stopTimeout);
+        }
+        stopCmd.exec();
+    }
+
+    private Status remove(DockerClient client, String id) {
+        try {
+            client.removeContainerCmd(id).withForce(true).withRemoveVolumes(removeVolumes).exec();
+            return Status.DONE;
+        } catch (NotFoundException e) {
+            return Status.GONE;
+        }
+    }
+
+    private Result await(DockerClient client, String id, Future<Result> future, AtomicInteger state,
+            List<AtomicInteger> states, long start, long deadlineNanos) throws InterruptedException {
+        try {
+            Result result;
+            if (deadlineNanos == Long.MAX_VALUE) {
+                result = future.get();
+            } else {
+                result = future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            if (result != null) {
+                return result;
+            }
+            // skipped because the deadline passed before its turn
+        } catch (ExecutionException e) {
+            return failed(id, e.getCause() != null ? e.getCause() : e, start);
+        } catch (TimeoutException e) {
+            // deadline passed, containers which didn't get their turn yet won't get it anymore
+            for (AtomicInteger other : states) {
+                other.compareAndSet(PENDING, SKIPPED);
+            }
+            future.cancel(false);
+        }
+
+        boolean notStarted = state.get() == SKIPPED;
+        if (mode == Mode.TEARDOWN) {
+            // force removal kills the container
+            try {
+                remove(client, id);
+            } catch (Exception removeError) {
+                return failed(id, removeError, start);
+            }
+            return new Result(id, Status.KILLED_AT_DEADLINE, millisSince(start), null);
+        }
+        boolean killed = true;
+        try {
+            if (notStarted && mode == Mode.RESTART) {
+                // restart never began, so do it the hard way
+                try {
+                    client.killContainerCmd(id).exec();
+                } catch (ConflictException notRunning) {
+                    // nothing to kill
+                }
+                client.startContainerCmd(id).exec();
+            } else {
+                try {
+                    client.killContainerCmd(id).exec();
+                } catch (ConflictException | NotModifiedException notRunning) {
+                    // stopped on its own after the deadline passed
+                    killed = false;
+                }
+            }
+        } catch (Exception killError) {
+            return failed(id, killError, start);
+        }
+        if (!notStarted && mode == Mode.RESTART) {
+            // let the restart start the container again
+            try {
+                future.get(KILL_GRACE, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException ignored) {
+                // the container was killed anyway
+            }
+        }
+        return new Result(id, killed ? Status.KILLED_AT_DEADLINE : Status.DONE, millisSince(start), null);
+    }
+
+    private static Result failed(String id, Throwable error, long start) {
+        return new Result(id, Status.FAILED, millisSince(start),
+                error.getMessage() != null ? error.getMessage() : error.toString());
+    }
+
+    private static long millisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    /**
+     * Outcome for a single container.
+     */
+    public static final class Result implements Serializable {
+
+        private static final long serialVersionUID = -5104416460829128403L;
+
+        private final String containerId;
+        private final Status status;
+        private final long millis;
+        private final String error;
+
+        Result(String containerId, Status status, long millis, String error) {
+            this.containerId = containerId;
+            this.status = status;
+            this.millis = millis;
+            this.error = error;
+        }
+
+        public String getContainerId() {
+            return containerId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isFailed() {
+            return status == Status.FAILED;
+        }
+
+        /**
+         * @return how long it took to handle the container in milliseconds
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
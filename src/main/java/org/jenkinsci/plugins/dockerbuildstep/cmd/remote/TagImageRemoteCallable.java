@@ -2,11 +2,10 @@ package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
 
 import com.github.dockerjava.api.DockerClient;
 
-import hudson.model.Descriptor;
 
 /**
  * A Callable wrapping the tag image command.
@@ -19,16 +18,14 @@ public class TagImageRemoteCallable extends MasterToSlaveCallable<Void, Exceptio
     private static final long serialVersionUID = -6899484703281434847L;
 
     Config cfgData;
-    Descriptor<?> descriptor;
     
     String imageRes;
     String repositoryRes;
     String tagRes;
     boolean withForce;
     
-    public TagImageRemoteCallable(Config cfgData, Descriptor<?> descriptor, String imageRes, String repositoryRes, String tagRes, boolean withForce) {
+    public TagImageRemoteCallable(Config cfgData, String imageRes, String repositoryRes, String tagRes, boolean withForce) {
         this.cfgData = cfgData;
-        this.descriptor = descriptor;
         this.imageRes = imageRes;
         this.repositoryRes = repositoryRes;
         this.tagRes = tagRes;
@@ -36,11 +33,13 @@ public class TagImageRemoteCallable extends MasterToSlaveCallable<Void, Exceptio
     }
 
     public Void call() throws Exception {
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
         
-        client.tagImageCmd(imageRes, repositoryRes, tagRes).withForce(withForce).exec();
+            client.tagImageCmd(imageRes, repositoryRes, tagRes).withForce(withForce).exec();
         
-        return null;
+            return null;
+        }
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import jenkins.security.MasterToSlaveCallable;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ContainerStateTracker.ContainerState;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.HealthCheck;
+import com.github.dockerjava.api.model.StreamType;
+
+
+/**
+ * A Callable waiting until containers reach a condition: running, healthy, exited or having written a matching log
+ * line. State changes are taken from the Docker event stream and logs are followed, so the wait ends as soon as the
+ * condition is met. All containers share one deadline.
+ * It can be sent through a Channel to execute on the correct build node.
+ */
+public class WaitForContainerRemoteCallable extends MasterToSlaveCallable<List<WaitForContainerRemoteCallable.Result>, Exception> {
+
+    private static final long serialVersionUID = -1905183218838036512L;
+
+    /**
+     * How often the state is checked by inspecting the container when the event stream isn't available, in
+     * milliseconds.
+     */
+    static final long POLL_INTERVAL = 1000;
+
+    public enum Condition {
+        RUNNING("Running"),
+        HEALTHY("Healthy according to its HEALTHCHECK"),
+        EXITED("Exited"),
+        LOG_MATCHES("Log line matches a regular expression");
+
+        private final String description;
+
+        Condition(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    Config cfgData;
+
+    List<String> ids;
+
+    Condition condition;
+
+    Integer exitCode;
+
+    String logPattern;
+
+    int timeout;
+
+    /**
+     * @param exitCode
+     *            for {@link Condition#EXITED}, the expected exit code, any if <code>null</code>
+     * @param logPattern
+     *            for {@link Condition#LOG_MATCHES}, regular expression a log line has to contain
+     * @param timeout
+     *            seconds to wait for all containers
+     */
+    public WaitForContainerRemoteCallable(Config cfgData, List<String> ids, Condition condition, Integer exitCode,
+            String logPattern, int timeout) {
+        this.cfgData = cfgData;
+        this.ids = new ArrayList<String>(ids);
+        this.condition = condition;
+        this.exitCode = exitCode;
+        this.logPattern = logPattern;
+        this.timeout = timeout;
+    }
+
+    public List<Result> call() throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeout);
+        List<Result> results = new ArrayList<Result>();
+
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+            ContainerStateTracker tracker = condition == Condition.LOG_MATCHES ? null
+                    : ContainerStateTracker.forConfig(cfgData);
+            for (String id : ids) {
+                try {
+                    results.add(waitFor(client, tracker, id, start, deadline));
+                } catch (Exception e) {
+                    results.add(new Result(id, false, null, millisSince(start), e.getMessage() != null
+                            ? e.getMessage() : e.toString()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private Result waitFor(DockerClient client, ContainerStateTracker tracker, String id, long start, long deadline)
+            throws Exception {
+        InspectContainerResponse inspect = client.inspectContainerCmd(id).exec();
+        if (condition == Condition.HEALTHY && !hasHealthCheck(inspect)) {
+            return new Result(id, false, null, millisSince(start), "container has no HEALTHCHECK");
+        }
+        if (condition == Condition.LOG_MATCHES) {
+            return waitForLog(id, start, deadline);
+        }
+
+        Predicate<ContainerState> done = s -> s != null && (isMet(s) || isUnreachable(s));
+        String fullId = inspect.getId();
+        ContainerState state = ContainerState.from(inspect);
+        while (!done.test(state)) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return new Result(id, false, state, millisSince(start), "not " + describe() + " within " + timeout
+                        + " s");
+            }
+            ContainerState tracked = tracker.await(fullId, done, Math.min(remaining, POLL_INTERVAL));
+            if (tracked != null) {
+                state = tracked;
+            } else if (tracker.isSynced()) {
+                ContainerState current = tracker.get(fullId);
+                state = current != null ? current : state;
+            } else {
+                // no event stream, fall back to polling
+                state = ContainerState.from(client.inspectContainerCmd(fullId).exec());
+            }
+        }
+        if (isMet(state)) {
+            return new Result(id, true, state, millisSince(start), null);
+        }
+        return new Result(id, false, state, millisSince(start), "won't become " + describe());
+    }
+
+    private boolean isMet(ContainerState state) {
+        switch (condition) {
+        case RUNNING:
+            return state.isRunning();
+        case HEALTHY:
+            return state.isRunning() && "healthy".equals(state.getHealth());
+        case EXITED:
+            return isExited(state) && (exitCode == null || exitCode.equals(state.getExitCode()));
+        default:
+            return false;
+        }
+    }
+
+    private boolean isUnreachable(ContainerState state) {
+        switch (condition) {
+        case HEALTHY:
+            return isExited(state);
+        case EXITED:
+            return isExited(state) && exitCode != null && state.getExitCode() != null
+                    && !exitCode.equals(state.getExitCode());
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isExited(ContainerState state) {
+        return "exited".equals(state.getStatus()) || "dead".equals(state.getStatus());
+    }
+
+    private String describe() {
+        switch (condition) {
+        case RUNNING:
+            return "running";
+        case HEALTHY:
+            return "healthy";
+        default:
+            return exitCode == null ? "exited" : "exited with code " + exitCode;
+        }
+    }
+
+    /**
+     * The health state is reported only once the container runs, so the configuration is checked instead.
+     */
+    private static boolean hasHealthCheck(InspectContainerResponse inspect) {
+        HealthCheck healthCheck = inspect.getConfig() != null ? inspect.getConfig().getHealthcheck() : null;
+        List<String> test = healthCheck != null ? healthCheck.getTest() : null;
+        // HEALTHCHECK NONE disables the check inherited from the image
+        return test != null && !test.isEmpty() && !"NONE".equals(test.get(0));
+    }
+
+    private Result waitForLog(String id, long start, long deadline) throws Exception {
+        final Pattern pattern = Pattern.compile(logPattern);
+        // frames of stdout and stderr interleave, so each stream is split into lines on its own; frames may also
+        // split a multibyte character, so a line is decoded only once it's complete
+        final Map<StreamType, ByteArrayOutputStream> partials = new EnumMap<StreamType, ByteArrayOutputStream>(
+                StreamType.class);
+        final String[] matched = new String[1];
+
+        ResultCallback.Adapter<Frame> callback = new ResultCallback.Adapter<Frame>() {
+            @Override
+            public void onNext(Frame frame) {
+                synchronized (partials) {
+                    if (matched[0] != null) {
+                        return;
+                    }
+                    ByteArrayOutputStream partial = partials.computeIfAbsent(frame.getStreamType(),
+                            type -> new ByteArrayOutputStream());
+                    for (byte b : frame.getPayload()) {
+                        if (b != '\n') {
+                            partial.write(b);
+                            continue;
+                        }
+                        String line = decode(partial);
+                        partial.reset();
+                        if (pattern.matcher(line).find()) {
+                            matched[0] = line;
+                            break;
+                        }
+                    }
+                    if (matched[0] == null) {
+                        return;
+                    }
+                }
+                try {
+                    close();
+                } catch (Exception e) {
+                    // stop following anyway
+                }
+            }
+        };
+        // the log can be silent for a long time, so the client must not time out waiting for it
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquireStreaming(cfgData, null)) {
+            try {
+                lease.getClient().logContainerCmd(id).withStdOut(true).withStdErr(true).withFollowStream(true)
+                        .withTailAll().exec(callback);
+                callback.awaitCompletion(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } finally {
+                callback.close();
+            }
+        }
+        boolean found;
+        synchronized (partials) {
+            // last line of a stream may not be terminated
+            for (ByteArrayOutputStream partial : partials.values()) {
+                String line = decode(partial);
+                if (matched[0] == null && pattern.matcher(line).find()) {
+                    matched[0] = line;
+                }
+            }
+            found = matched[0] != null;
+        }
+        if (found) {
+            return new Result(id, true, null, millisSince(start), null);
+        }
+        return new Result(id, false, null, millisSince(start), "no log line matched " + logPattern + " within "
+                + timeout + " s");
+    }
+
+    private static String decode(ByteArrayOutputStream line) {
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static long millisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    /**
+     * Outcome of waiting for a single container.
+     */
+    public static final class Result implements Serializable {
+
+        private static final long serialVersionUID = 2251781342787093218L;
+
+        private final String containerId;
+        private final boolean met;
+        private final String state;
+        private final long millis;
+        private final String error;
+
+        Result(String containerId, boolean met, ContainerState state, long millis, String error) {
+            this.containerId = containerId;
+            this.met = met;
+            this.state = state == null ? null : state.toString();
+            this.millis = millis;
+            this.error = error;
+        }
+
+        public String getContainerId() {
+            return containerId;
+        }
+
+        public boolean isMet() {
+            return met;
+        }
+
+        /**
+         * @return last known state of the container, <code>null</code> for log conditions
+         */
+        public String getState() {
+            return state;
+        }
+
+        /**
+         * @return how long the wait took in milliseconds, counted from the start of the whole wait
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -1,68 +1,190 @@
 package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import jenkins.security.MasterToSlaveCallable;
 import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
-import org.jenkinsci.plugins.dockerbuildstep.cmd.DockerCommand;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ContainerStateTracker.ContainerState;
 import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+import org.jenkinsci.plugins.dockerbuildstep.util.PortProber;
+import org.jenkinsci.plugins.dockerbuildstep.util.PortProber.Result;
+import org.jenkinsci.plugins.dockerbuildstep.util.PortProber.Status;
+import org.jenkinsci.plugins.dockerbuildstep.util.PortProber.Target;
 import org.jenkinsci.plugins.dockerbuildstep.util.PortUtils;
 
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
 
 import hudson.model.BuildListener;
-import hudson.model.Descriptor;
 
 
 /**
  * A Callable wrapping the inspect container command.
  * It can be sent through a Channel to execute on the correct build node.
  * 
+ * Ports of all containers are probed at the same time and waiting ends as soon as the last port opens or the timeout
+ * passes. Waiting for a port of a container stops as soon as the Docker server reports that the container is no
+ * longer running. The tracked state may lag behind, e.g. still show a container as created right after it was
+ * started, so it's confirmed by inspecting the container before giving up.
+ * 
  * @author David Csakvari
+ * @see PortProber
  */
 public class WaitForPortsRemoteCallable extends MasterToSlaveCallable<Void, Exception> {
 
     private static final long serialVersionUID = 8479489609579635741L;
 
+    /**
+     * Seconds to wait for all ports, if not configured.
+     */
+    public static final int DEFAULT_TIMEOUT = 20;
+
     BuildListener listener;
     
     Config cfgData;
-    Descriptor<?> descriptor;
     
     String waitForPorts;
-    
-    public WaitForPortsRemoteCallable(BuildListener listener, Config cfgData, Descriptor<?> descriptor, String waitForPorts) {
+
+    int timeout;
+
+    boolean failOnTimeout;
+
+    /**
+     * @param timeout
+     *            seconds to wait for all ports
+     * @param failOnTimeout
+     *            whether to fail if some ports aren't available in time, otherwise only a warning is logged
+     */
+    public WaitForPortsRemoteCallable(BuildListener listener, Config cfgData, String waitForPorts, int timeout,
+            boolean failOnTimeout) {
         this.listener = listener;
-    	this.cfgData = cfgData;
-        this.descriptor = descriptor;
+        this.cfgData = cfgData;
         this.waitForPorts = waitForPorts;
+        this.timeout = timeout;
+        this.failOnTimeout = failOnTimeout;
+    }
+
+    @Deprecated
+    public WaitForPortsRemoteCallable(BuildListener listener, Config cfgData, String waitForPorts) {
+        this(listener, cfgData, waitForPorts, DEFAULT_TIMEOUT, false);
     }
     
     public Void call() throws Exception {
         final ConsoleLogger console = new ConsoleLogger(listener);
-        DockerClient client = DockerCommand.getClient(descriptor, cfgData.dockerUrlRes, cfgData.dockerVersionRes, cfgData.dockerCertPathRes, null);
-        
-        Map<String, List<Integer>> containers = PortUtils.parsePorts(waitForPorts);
-    	for (String cId : containers.keySet()) {
-    		InspectContainerResponse response = client.inspectContainerCmd(cId).exec();
-            String ip = response.getNetworkSettings().getIpAddress();
-            List<Integer> ports = containers.get(cId);
-            for (Integer port : ports) {
-                console.logInfo("Waiting for port " + port + " on " + ip + " (container ID " + cId + ")");
-                boolean portReady = PortUtils.waitForPort(ip, port);
-                if (portReady) {
-                    console.logInfo(ip + ":" + port + " ready");
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(cfgData, null)) {
+            DockerClient client = lease.getClient();
+            ContainerStateTracker tracker = ContainerStateTracker.forConfig(cfgData);
+
+            Map<String, List<Integer>> containers = PortUtils.parsePorts(waitForPorts);
+            Map<Target, String> containerOf = new LinkedHashMap<Target, String>();
+            for (String cId : containers.keySet()) {
+                InspectContainerResponse response = client.inspectContainerCmd(cId).exec();
+                String ip = response.getNetworkSettings().getIpAddress();
+                for (Integer port : containers.get(cId)) {
+                    Target target = new Target(ip, port);
+                    if (containerOf.putIfAbsent(target, cId) == null) {
+                        console.logInfo("Waiting for port " + port + " on " + ip + " (container ID " + cId + ")");
+                    }
+                }
+            }
+
+            StopCheck stopped = new StopCheck(client, tracker);
+            Map<Target, Result> results = new PortProber().probe(new ArrayList<Target>(containerOf.keySet()),
+                    TimeUnit.SECONDS.toMillis(timeout), t -> stopped.test(containerOf.get(t)));
+
+            int unavailable = 0;
+            for (Map.Entry<Target, Result> entry : results.entrySet()) {
+                Target target = entry.getKey();
+                Result result = entry.getValue();
+                String cId = containerOf.get(target);
+                if (result.isOpen()) {
+                    console.logInfo(target + " ready after " + result.getMillis() + " ms");
+                    continue;
+                }
+                unavailable++;
+                String reason;
+                if (result.getStatus() == Status.GAVE_UP) {
+                    reason = "container ID " + cId + " is " + stopped.confirmed.get(cId) + ", port " + target.getPort()
+                            + " won't become available";
+                } else {
+                    reason = target + " still not available after " + timeout + " s (container ID " + cId
+                            + (result.getLastError() != null ? ", " + result.getLastError() : "") + ")";
+                }
+                if (failOnTimeout) {
+                    console.logError(reason);
                 } else {
-                    // TODO fail the build, but make timeout configurable first
-                    console.logWarn(ip + ":" + port + " still not available (container ID " + cId
-                            + "), but build continues ...");
+                    console.logWarn(reason + ", but build continues ...");
                 }
             }
+            if (failOnTimeout && unavailable > 0) {
+                throw new IllegalStateException(unavailable + " port(s) not available");
+            }
+
+            return null;
+        }
+    }
+
+    private static boolean isStopped(ContainerState state) {
+        return state != null && !state.isRunning() && !"restarting".equals(state.getStatus());
+    }
+
+    /**
+     * Decides whether a container has stopped. The tracked state is only a hint, the container is inspected to
+     * confirm it. A refuted state isn't inspected again until the tracker reports a new one.
+     */
+    private static class StopCheck {
+
+        private final DockerClient client;
+
+        private final ContainerStateTracker tracker;
+
+        /**
+         * Tracked state which inspecting showed to be out of date, by container.
+         */
+        private final Map<String, ContainerState> refuted = new HashMap<String, ContainerState>();
+
+        /**
+         * State the container was inspected in, by stopped container.
+         */
+        final Map<String, ContainerState> confirmed = new HashMap<String, ContainerState>();
+
+        StopCheck(DockerClient client, ContainerStateTracker tracker) {
+            this.client = client;
+            this.tracker = tracker;
+        }
+
+        boolean test(String cId) {
+            if (confirmed.containsKey(cId)) {
+                return true;
+            }
+            ContainerState tracked = tracker.get(cId);
+            if (!isStopped(tracked) || tracked == refuted.get(cId)) {
+                return false;
+            }
+            ContainerState current;
+            try {
+                current = ContainerState.from(client.inspectContainerCmd(cId).exec());
+            } catch (NotFoundException e) {
+                current = tracked;
+            } catch (RuntimeException e) {
+                // can't confirm, keep probing
+                refuted.put(cId, tracked);
+                return false;
+            }
+            if (!isStopped(current)) {
+                refuted.put(cId, tracked);
+                return false;
+            }
+            confirmed.put(cId, current);
+            return true;
         }
-    	
-    	return null;
     }
     
 }
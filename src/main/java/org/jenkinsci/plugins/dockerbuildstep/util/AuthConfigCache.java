@@ -0,0 +1,149 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Base64;
+import org.jenkinsci.plugins.docker.commons.credentials.DockerRegistryEndpoint;
+import org.jenkinsci.plugins.docker.commons.credentials.DockerRegistryToken;
+
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.github.dockerjava.api.model.AuthConfig;
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
+
+/**
+ * Short-lived cache of registry credentials, so that commands working with many images don't look up the credentials
+ * and decode the token for each of them. Entries are keyed by the job, registry URL and credentials ID, and expire
+ * after <code>org.jenkinsci.plugins.dockerbuildstep.util.AuthConfigCache.ttlSeconds</code> (60 seconds by default).
+ * All entries are dropped whenever a configuration which may hold credentials is saved.
+ *
+ * Every caller gets its own copy of the cached {@link AuthConfig}, so callers may modify it.
+ */
+public final class AuthConfigCache {
+
+    public static final long DEFAULT_TTL_SECONDS = Long.getLong(AuthConfigCache.class.getName() + ".ttlSeconds", 60);
+
+    private static final Cache<Key, AuthConfig> CACHE = newCache(DEFAULT_TTL_SECONDS, Ticker.systemTicker());
+
+    private AuthConfigCache() {
+    }
+
+    /**
+     * @return credentials for given registry as seen by given job, <code>null</code> if the registry has no
+     *         credentials configured
+     */
+    public static AuthConfig get(final Job<?, ?> job, final DockerRegistryEndpoint registry) {
+        if (registry == null || Strings.isNullOrEmpty(registry.getCredentialsId())) {
+            return null;
+        }
+        return get(CACHE, new Key(job == null ? null : job.getFullName(), registry.getUrl(),
+                registry.getCredentialsId()), () -> toAuthConfig(registry.getUrl(), registry.getToken(job)));
+    }
+
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    static Cache<Key, AuthConfig> newCache(long ttlSeconds, Ticker ticker) {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .maximumSize(256)
+                .ticker(ticker)
+                .build();
+    }
+
+    static AuthConfig get(Cache<Key, AuthConfig> cache, Key key, Callable<AuthConfig> loader) {
+        try {
+            return copy(cache.get(key, loader));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Cannot get credentials " + key.credentialsId, cause);
+        }
+    }
+
+    /**
+     * @return credentials decoded from given token, a token without a colon is taken as a user name without password
+     */
+    static AuthConfig toAuthConfig(String registryUrl, DockerRegistryToken token) {
+        AuthConfig authConfig = new AuthConfig();
+        authConfig.withRegistryAddress(registryUrl);
+        if (token != null) {
+            String credentials = new String(Base64.decodeBase64(token.getToken()), StandardCharsets.UTF_8);
+            // password may contain colons, user name may not
+            String[] usernamePassword = credentials.split(":", 2);
+            authConfig.withUsername(usernamePassword[0]);
+            authConfig.withPassword(usernamePassword.length > 1 ? usernamePassword[1] : null);
+            authConfig.withEmail(token.getEmail());
+        }
+        return authConfig;
+    }
+
+    private static AuthConfig copy(AuthConfig authConfig) {
+        return new AuthConfig()
+                .withRegistryAddress(authConfig.getRegistryAddress())
+                .withUsername(authConfig.getUsername())
+                .withPassword(authConfig.getPassword())
+                .withEmail(authConfig.getEmail());
+    }
+
+    static final class Key {
+        private final String job;
+        private final String registryUrl;
+        private final String credentialsId;
+
+        Key(String job, String registryUrl, String credentialsId) {
+            this.job = job;
+            this.registryUrl = registryUrl;
+            this.credentialsId = credentialsId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(job, other.job) && Objects.equals(registryUrl, other.registryUrl)
+                    && Objects.equals(credentialsId, other.credentialsId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(job, registryUrl, credentialsId);
+        }
+    }
+
+    /**
+     * Drops cached credentials when global, folder or user credentials may have changed.
+     */
+    @Extension
+    public static class CredentialsChangeListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SystemCredentialsProvider || o instanceof ItemGroup || o instanceof User) {
+                invalidateAll();
+            }
+        }
+    }
+}
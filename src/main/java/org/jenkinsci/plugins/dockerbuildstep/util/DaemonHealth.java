@@ -0,0 +1,154 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Health of a single Docker daemon, based on the history of periodic health checks. Acts as a circuit breaker: when
+ * the configured number of consecutive checks fails, the circuit opens and Docker commands fail immediately instead of
+ * waiting for network timeouts. The next successful check closes it again.
+ *
+ * The circuit opens only for daemons which were healthy at least once, so a daemon which is reachable from build
+ * nodes, but not from the controller running the checks, never blocks builds.
+ */
+public class DaemonHealth {
+
+    public enum State {
+        UNKNOWN, HEALTHY, UNHEALTHY
+    }
+
+    public static final int HISTORY_SIZE = 20;
+    public static final int FAILURE_THRESHOLD = Integer.getInteger(DaemonHealth.class.getName() + ".failureThreshold", 3);
+
+    private final String dockerUrl;
+    private final int failureThreshold;
+
+    /** latencies of the last checks in milliseconds, -1 for failed checks */
+    private final long[] history = new long[HISTORY_SIZE];
+    private int historyCount;
+    private int historyNext;
+
+    private int consecutiveFailures;
+    private boolean everHealthy;
+    private String lastError;
+    private long lastCheck;
+
+    public DaemonHealth(String dockerUrl) {
+        this(dockerUrl, FAILURE_THRESHOLD);
+    }
+
+    public DaemonHealth(String dockerUrl, int failureThreshold) {
+        this.dockerUrl = dockerUrl;
+        this.failureThreshold = failureThreshold;
+    }
+
+    public synchronized void recordSuccess(long latencyMillis) {
+        record(latencyMillis);
+        consecutiveFailures = 0;
+        everHealthy = true;
+        lastError = null;
+    }
+
+    public synchronized void recordFailure(String error) {
+        record(-1);
+        consecutiveFailures++;
+        lastError = error;
+    }
+
+    private void record(long latency) {
+        history[historyNext] = latency;
+        historyNext = (historyNext + 1) % HISTORY_SIZE;
+        historyCount = Math.min(historyCount + 1, HISTORY_SIZE);
+        lastCheck = System.currentTimeMillis();
+    }
+
+    /**
+     * @return true if Docker commands shouldn't be attempted against this daemon
+     */
+    public synchronized boolean isOpen() {
+        return everHealthy && consecutiveFailures >= failureThreshold;
+    }
+
+    public synchronized State getState() {
+        if (!everHealthy) {
+            return State.UNKNOWN;
+        }
+        return isOpen() ? State.UNHEALTHY : State.HEALTHY;
+    }
+
+    public String getDockerUrl() {
+        return dockerUrl;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return time of the last check in milliseconds since epoch, 0 if there was none yet
+     */
+    public synchronized long getLastCheck() {
+        return lastCheck;
+    }
+
+    /**
+     * @return latencies of the recent checks from the oldest, -1 for failed checks
+     */
+    public synchronized List<Long> getLatencyHistory() {
+        List<Long> latencies = new ArrayList<Long>(historyCount);
+        int start = (historyNext - historyCount + HISTORY_SIZE) % HISTORY_SIZE;
+        for (int i = 0; i < historyCount; i++) {
+            latencies.add(history[(start + i) % HISTORY_SIZE]);
+        }
+        return latencies;
+    }
+
+    /**
+     * @return average latency of the recent successful checks in milliseconds, -1 if there was none
+     */
+    public synchronized long getAverageLatency() {
+        long sum = 0;
+        int count = 0;
+        for (long latency : getLatencyHistory()) {
+            if (latency >= 0) {
+                sum += latency;
+                count++;
+            }
+        }
+        return count == 0 ? -1 : sum / count;
+    }
+
+    /**
+     * @return percentage of the recent checks which failed
+     */
+    public synchronized int getErrorRate() {
+        if (historyCount == 0) {
+            return 0;
+        }
+        int failures = 0;
+        for (long latency : getLatencyHistory()) {
+            if (latency < 0) {
+                failures++;
+            }
+        }
+        return failures * 100 / historyCount;
+    }
+
+    /**
+     * @return recent latencies separated by spaces, failed checks shown as <code>x</code>
+     */
+    public synchronized String getLatencyHistoryText() {
+        StringBuilder text = new StringBuilder();
+        for (long latency : getLatencyHistory()) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(latency < 0 ? "x" : String.valueOf(latency));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,215 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.DockerException;
+import com.github.dockerjava.api.model.AuthConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Thread-safe cache of {@link DockerClient}s keyed by the resolved connection and transport settings and registry
+ * credentials.
+ * Clients which weren't used for the configured idle time, or which are evicted because the cache is full, are
+ * closed, which releases their HTTP connection pool.
+ *
+ * Clients are handed out only as a {@link Lease}. A leased client is closed only after the last lease is released, even
+ * if it was evicted in the meantime, so eviction never closes a client in the middle of a request.
+ *
+ * Idle time and size limit can be tuned via <code>org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache.idleMinutes</code>
+ * and <code>org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache.maxSize</code> system properties.
+ */
+public class DockerClientCache {
+
+    public static final long DEFAULT_IDLE_MINUTES = Long.getLong(DockerClientCache.class.getName() + ".idleMinutes", 30);
+    public static final long DEFAULT_MAX_SIZE = Long.getLong(DockerClientCache.class.getName() + ".maxSize", 32);
+
+    private final Cache<Key, Entry> entries;
+
+    public DockerClientCache() {
+        this(DEFAULT_IDLE_MINUTES, TimeUnit.MINUTES, DEFAULT_MAX_SIZE);
+    }
+
+    public DockerClientCache(long idleTime, TimeUnit unit, long maxSize) {
+        this.entries = CacheBuilder.newBuilder()
+                .expireAfterAccess(idleTime, unit)
+                .maximumSize(maxSize)
+                .<Key, Entry>removalListener(n -> n.getValue().evict())
+                .build();
+    }
+
+    /**
+     * Returns cached client for given key or creates a new one using provided factory. The client won't be closed
+     * until the returned lease is closed.
+     */
+    public Lease acquire(Key key, Callable<DockerClient> factory) throws DockerException {
+        while (true) {
+            Entry entry = entry(key, factory);
+            if (entry.retain()) {
+                return new Lease(entry);
+            }
+            // evicted in the meantime, next round creates a new client
+        }
+    }
+
+    private Entry entry(final Key key, final Callable<DockerClient> factory) throws DockerException {
+        try {
+            return entries.get(key, () -> new Entry(key, factory.call()));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DockerException("Cannot create Docker client: " + cause.getMessage(), 0, cause);
+        }
+    }
+
+    /**
+     * Closes and removes all cached clients. Leased clients are closed once released.
+     */
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    public long size() {
+        entries.cleanUp();
+        return entries.size();
+    }
+
+    private static void close(Key key, DockerClient client) {
+        if (client == null) {
+            return;
+        }
+        try {
+            client.close();
+            LOGGER.fine("Closed Docker client for " + key);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to close Docker client for " + key, e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Key key;
+        private final DockerClient client;
+        private int leases;
+        private boolean evicted;
+
+        Entry(Key key, DockerClient client) {
+            this.key = key;
+            this.client = client;
+        }
+
+        synchronized boolean retain() {
+            if (evicted) {
+                return false;
+            }
+            leases++;
+            return true;
+        }
+
+        synchronized void release() {
+            leases--;
+            if (evicted && leases == 0) {
+                close(key, client);
+            }
+        }
+
+        synchronized void evict() {
+            evicted = true;
+            if (leases == 0) {
+                close(key, client);
+            }
+        }
+    }
+
+    /**
+     * Client borrowed from the cache. Closing the lease doesn't close the client, it only allows it to be closed
+     * when evicted.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public DockerClient getClient() {
+            return entry.client;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                entry.release();
+            }
+        }
+    }
+
+    /**
+     * Cache key. Registry credentials are kept only as a fingerprint, so that clients created for different
+     * credentials are never shared.
+     */
+    public static final class Key {
+
+        private final Config config;
+        private final String authFingerprint;
+
+        public Key(Config config, AuthConfig authConfig) {
+            this.config = config;
+            this.authFingerprint = fingerprint(authConfig);
+        }
+
+        public Key(String dockerUrl, String dockerVersion, String dockerCertPath, AuthConfig authConfig) {
+            this(new Config(dockerUrl, dockerVersion, dockerCertPath), authConfig);
+        }
+
+        static String fingerprint(AuthConfig authConfig) {
+            if (authConfig == null) {
+                return null;
+            }
+            return DigestUtils.sha256Hex(authConfig.getRegistryAddress() + '\0' + authConfig.getUsername() + '\0'
+                    + authConfig.getPassword() + '\0' + authConfig.getEmail());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return config.equals(other.config) && Objects.equals(authFingerprint, other.authFingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(config, authFingerprint);
+        }
+
+        @Override
+        public String toString() {
+            return config.dockerUrlRes + " (version " + config.dockerVersionRes + ", cert path "
+                    + config.dockerCertPathRes + ", max connections " + config.maxConnections
+                    + (authFingerprint == null ? ")" : ", with registry credentials)");
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(DockerClientCache.class.getName());
+}
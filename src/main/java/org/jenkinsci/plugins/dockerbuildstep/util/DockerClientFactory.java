@@ -0,0 +1,88 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.net.URI;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.time.Duration;
+
+import javax.net.ssl.SSLContext;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.AuthConfig;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.SSLConfig;
+import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient;
+
+/**
+ * Creates Docker clients from fully resolved {@link Config}. Doesn't depend on Jenkins, so it can be used anywhere,
+ * including agents and tests.
+ */
+public final class DockerClientFactory {
+
+    /**
+     * Connect timeout in seconds used when none is configured, so that an unreachable daemon doesn't block the
+     * executor forever.
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 30;
+
+    private DockerClientFactory() {
+    }
+
+    /**
+     * Creates new client. Caller is responsible for closing it.
+     */
+    public static DockerClient create(Config cfg, AuthConfig authConfig) {
+        // TODO JENKINS-26512
+        SSLConfig dummySSLConf = (new SSLConfig() {
+            public SSLContext getSSLContext() throws KeyManagementException, UnrecoverableKeyException,
+                    NoSuchAlgorithmException, KeyStoreException {
+                return null;
+            }
+        });
+
+        // SSL configuration is passed to the transport only when there are certificates, as any SSL configuration
+        // makes it use https
+        SSLConfig sslConfig = null;
+        if (cfg.dockerCertPathRes != null) {
+            sslConfig = SSLContextCache.sslConfig(cfg.dockerCertPathRes);
+        }
+
+        DefaultDockerClientConfig.Builder configBuilder = new DefaultDockerClientConfig.Builder()
+                .withDockerHost(cfg.dockerUrlRes).withApiVersion(cfg.dockerVersionRes)
+                .withCustomSslConfig(sslConfig != null ? sslConfig : dummySSLConf);
+        if (authConfig != null) {
+            configBuilder.withRegistryUsername(authConfig.getUsername())
+                    .withRegistryEmail(authConfig.getEmail())
+                    .withRegistryPassword(authConfig.getPassword())
+                    .withRegistryUrl(authConfig.getRegistryAddress());
+        }
+
+        DefaultDockerClientConfig config = configBuilder.build();
+
+        return DockerClientBuilder.getInstance(config)
+                .withDockerHttpClient(createHttpClient(cfg, sslConfig))
+                .build();
+    }
+
+    private static DockerHttpClient createHttpClient(Config cfg, SSLConfig sslConfig) {
+        ApacheDockerHttpClient.Builder builder = new ApacheDockerHttpClient.Builder()
+                .dockerHost(URI.create(cfg.dockerUrlRes))
+                .sslConfig(sslConfig)
+                .connectionTimeout(Duration.ofSeconds(cfg.connectTimeout > 0 ? cfg.connectTimeout
+                        : DEFAULT_CONNECT_TIMEOUT));
+        if (cfg.maxConnections > 0) {
+            builder.maxConnections(cfg.maxConnections);
+        }
+        // no response timeout by default, attach, logs or events streams can be silent for a long time
+        if (cfg.responseTimeout > 0) {
+            builder.responseTimeout(Duration.ofSeconds(cfg.responseTimeout));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,124 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.EndpointLoadRemoteCallable.Load;
+
+/**
+ * Chooses the least loaded Docker server. The load of a server is the number of its running containers plus the
+ * number of Docker commands currently executed against it by this Jenkins, relative to its capacity, which is its
+ * weight multiplied by its memory in GiB.
+ */
+public class EndpointSelector {
+
+    private static final double GIB = 1024.0 * 1024 * 1024;
+
+    private static final ConcurrentMap<String, AtomicInteger> IN_FLIGHT = new ConcurrentHashMap<String, AtomicInteger>();
+
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<Usage>();
+
+    /**
+     * Records that the command executed by the current thread started to work with given Docker server. The usage is
+     * bound to the thread until it's closed, so that {@link #moveTo(String)} can charge it to another server.
+     */
+    public static Usage use(String dockerUrl) {
+        Usage usage = new Usage(dockerUrl, CURRENT.get());
+        CURRENT.set(usage);
+        begin(dockerUrl);
+        return usage;
+    }
+
+    /**
+     * Charges the command executed by the current thread to given Docker server instead of the one it started with,
+     * e.g. when the command placed the build on an endpoint. Does nothing if the thread isn't executing a command.
+     */
+    public static void moveTo(String dockerUrl) {
+        Usage usage = CURRENT.get();
+        if (usage != null && dockerUrl != null && !dockerUrl.equals(usage.dockerUrl)) {
+            end(usage.dockerUrl);
+            begin(dockerUrl);
+            usage.dockerUrl = dockerUrl;
+        }
+    }
+
+    /**
+     * Records that a command started to work with given Docker server.
+     */
+    public static void begin(String dockerUrl) {
+        if (dockerUrl != null) {
+            IN_FLIGHT.computeIfAbsent(dockerUrl, k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Records that a command started by {@link #begin(String)} finished.
+     */
+    public static void end(String dockerUrl) {
+        if (dockerUrl != null) {
+            AtomicInteger count = IN_FLIGHT.get(dockerUrl);
+            if (count != null) {
+                count.decrementAndGet();
+            }
+        }
+    }
+
+    public static int inFlight(String dockerUrl) {
+        AtomicInteger count = IN_FLIGHT.get(dockerUrl);
+        return count == null ? 0 : Math.max(0, count.get());
+    }
+
+    /**
+     * @return index of the server with the lowest load, the first one wins a tie; -1 if none is reachable
+     */
+    public static int choose(List<Load> loads, List<Integer> weights, List<Integer> inFlight) {
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < loads.size(); i++) {
+            Load load = loads.get(i);
+            if (!load.isReachable()) {
+                continue;
+            }
+            double score = score(load, weights.get(i), inFlight.get(i));
+            if (score < bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    static double score(Load load, int weight, int inFlight) {
+        double memGiB = load.getMemTotal() == null ? 1 : Math.max(1, load.getMemTotal() / GIB);
+        return (load.getRunningContainers() + inFlight) / (Math.max(1, weight) * memGiB);
+    }
+
+    /**
+     * Docker server a command is counted against, see {@link #use(String)}.
+     */
+    public static final class Usage implements AutoCloseable {
+
+        private final Usage previous;
+        private String dockerUrl;
+
+        Usage(String dockerUrl, Usage previous) {
+            this.dockerUrl = dockerUrl;
+            this.previous = previous;
+        }
+
+        public String getDockerUrl() {
+            return dockerUrl;
+        }
+
+        public void close() {
+            end(dockerUrl);
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
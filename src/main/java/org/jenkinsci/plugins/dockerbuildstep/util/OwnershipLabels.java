@@ -0,0 +1,85 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import hudson.model.AbstractBuild;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jenkins.model.Jenkins;
+
+/**
+ * Labels put on every container created by the plugin, telling which controller, job and build created it. Bulk
+ * commands use them to let the Docker server select only the containers of the running job or build.
+ */
+public final class OwnershipLabels {
+
+    public static final String PREFIX = "org.jenkinsci.plugins.dockerbuildstep.";
+    public static final String CONTROLLER = PREFIX + "controller";
+    public static final String JOB = PREFIX + "job";
+    public static final String BUILD = PREFIX + "build";
+
+    /**
+     * Containers a bulk command works with.
+     */
+    public enum Scope {
+        ALL("All containers on the Docker server"),
+        JOB("Only containers created by this job"),
+        BUILD("Only containers created by this build");
+
+        private final String description;
+
+        Scope(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private OwnershipLabels() {
+    }
+
+    /**
+     * @return labels for containers created by given build
+     */
+    public static Map<String, String> forBuild(AbstractBuild<?, ?> build) {
+        Map<String, String> labels = new LinkedHashMap<String, String>();
+        labels.put(CONTROLLER, controllerId());
+        labels.put(JOB, build.getProject().getFullName());
+        labels.put(BUILD, String.valueOf(build.getNumber()));
+        return labels;
+    }
+
+    /**
+     * @return label filters, as <code>key=value</code>, selecting containers of given build in given scope. Empty
+     *         for {@link Scope#ALL} or no scope. Job names may contain commas, so the filters must be passed on as
+     *         a list, never joined.
+     */
+    public static List<String> filters(AbstractBuild<?, ?> build, Scope scope) {
+        List<String> filters = new ArrayList<String>();
+        if (scope == null || scope == Scope.ALL) {
+            return filters;
+        }
+        for (Map.Entry<String, String> label : forBuild(build).entrySet()) {
+            if (scope == Scope.JOB && label.getKey().equals(BUILD)) {
+                continue;
+            }
+            filters.add(label.getKey() + "=" + label.getValue());
+        }
+        return filters;
+    }
+
+    /**
+     * @return label filter, as <code>key=value</code>, selecting all containers created by this controller
+     */
+    public static String controllerFilter() {
+        return CONTROLLER + "=" + controllerId();
+    }
+
+    private static String controllerId() {
+        return Jenkins.get().getLegacyInstanceId();
+    }
+}
@@ -0,0 +1,307 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Waits until TCP ports accept connections. Connects to all ports are issued at the same time as non-blocking
+ * connects multiplexed on a single {@link Selector}, so waiting for many ports takes as long as the slowest of them.
+ *
+ * Every attempt has its own connect timeout. A failed attempt is retried after an exponentially growing delay with
+ * random jitter, so that ports of a slowly starting container aren't hammered and retries of many ports don't happen
+ * in lockstep. Probing ends as soon as every port either opened, was given up or the deadline passed.
+ */
+public class PortProber {
+
+    public static final long DEFAULT_CONNECT_TIMEOUT = 1000;
+    public static final long DEFAULT_INITIAL_BACKOFF = 100;
+    public static final long DEFAULT_MAX_BACKOFF = 2000;
+
+    public enum Status {
+        OPEN, TIMED_OUT, GAVE_UP
+    }
+
+    private final long connectTimeout;
+    private final long initialBackoff;
+    private final long maxBackoff;
+
+    public PortProber() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    /**
+     * @param connectTimeout
+     *            milliseconds a single connect attempt may take
+     * @param initialBackoff
+     *            milliseconds between the first failed attempt and the next one, doubled after every failure
+     * @param maxBackoff
+     *            maximum milliseconds between two attempts
+     */
+    public PortProber(long connectTimeout, long initialBackoff, long maxBackoff) {
+        this.connectTimeout = connectTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Same as {@link #probe(List, long, Predicate)}, but never gives up before the deadline.
+     */
+    public Map<Target, Result> probe(List<Target> targets, long timeoutMillis) throws IOException,
+            InterruptedException {
+        return probe(targets, timeoutMillis, t -> false);
+    }
+
+    /**
+     * @param timeoutMillis
+     *            milliseconds to wait for all targets
+     * @param giveUp
+     *            tested after every failed attempt, the target isn't probed anymore once it returns true, e.g.
+     *            because its container has stopped
+     * @return result of every target, in the order of the targets
+     */
+    public Map<Target, Result> probe(List<Target> targets, long timeoutMillis, Predicate<Target> giveUp)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Map<Target, Result> results = new LinkedHashMap<Target, Result>();
+        List<Probe> pending = new ArrayList<Probe>();
+        for (Target target : targets) {
+            if (!results.containsKey(target)) {
+                results.put(target, null);
+                pending.add(new Probe(target, start));
+            }
+        }
+
+        try (Selector selector = Selector.open()) {
+            while (!pending.isEmpty()) {
+                long now = System.nanoTime();
+                if (now - deadline >= 0) {
+                    break;
+                }
+
+                long wakeUp = deadline;
+                for (Iterator<Probe> it = pending.iterator(); it.hasNext();) {
+                    Probe probe = it.next();
+                    if (probe.channel != null && now - probe.attemptDeadline >= 0) {
+                        probe.failed(now, "connect timed out after " + connectTimeout + " ms");
+                    }
+                    if (probe.channel == null && probe.attempts > 0 && giveUp.test(probe.target)) {
+                        results.put(probe.target, probe.result(Status.GAVE_UP, start));
+                        it.remove();
+                        continue;
+                    }
+                    if (probe.channel == null && now - probe.nextAttempt >= 0 && probe.connect(selector, now)) {
+                        results.put(probe.target, probe.result(Status.OPEN, start));
+                        it.remove();
+                        continue;
+                    }
+                    long next = probe.channel != null ? probe.attemptDeadline : probe.nextAttempt;
+                    if (next - wakeUp < 0) {
+                        wakeUp = next;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wakeUp - System.nanoTime())));
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Probe probe = (Probe) key.attachment();
+                    if (probe.finishConnect(System.nanoTime())) {
+                        results.put(probe.target, probe.result(Status.OPEN, start));
+                        pending.remove(probe);
+                    }
+                }
+            }
+        } finally {
+            for (Probe probe : pending) {
+                probe.close();
+                results.put(probe.target, probe.result(Status.TIMED_OUT, start));
+            }
+        }
+        return Collections.unmodifiableMap(results);
+    }
+
+    long backoff(int attempts) {
+        long delay = initialBackoff << Math.min(attempts - 1, 20);
+        delay = Math.min(Math.max(delay, 0), maxBackoff);
+        // equal jitter: at least half of the delay, so retries still back off
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private class Probe {
+
+        private final Target target;
+        private SocketChannel channel;
+        private long attemptDeadline;
+        private long nextAttempt;
+        private int attempts;
+        private String lastError;
+
+        Probe(Target target, long now) {
+            this.target = target;
+            this.nextAttempt = now;
+        }
+
+        /**
+         * @return true if the connection was established right away
+         */
+        boolean connect(Selector selector, long now) {
+            attempts++;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                if (channel.connect(new InetSocketAddress(target.getHost(), target.getPort()))) {
+                    close();
+                    return true;
+                }
+                channel.register(selector, SelectionKey.OP_CONNECT, this);
+                attemptDeadline = now + TimeUnit.MILLISECONDS.toNanos(connectTimeout);
+            } catch (IOException | RuntimeException e) {
+                failed(now, e.toString());
+            }
+            return false;
+        }
+
+        /**
+         * @return true if the connection was established
+         */
+        boolean finishConnect(long now) {
+            try {
+                if (channel.finishConnect()) {
+                    close();
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                failed(now, e.getMessage() != null ? e.getMessage() : e.toString());
+                return false;
+            }
+        }
+
+        void failed(long now, String error) {
+            lastError = error;
+            close();
+            nextAttempt = now + TimeUnit.MILLISECONDS.toNanos(backoff(attempts));
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    // also cancels the selection key
+                    channel.close();
+                } catch (IOException e) {
+                    // no-op
+                }
+                channel = null;
+            }
+        }
+
+        Result result(Status status, long start) {
+            return new Result(status, attempts, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    status == Status.OPEN ? null : lastError);
+        }
+    }
+
+    /**
+     * A host and port to probe.
+     */
+    public static final class Target {
+
+        private final String host;
+        private final int port;
+
+        public Target(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Target)) {
+                return false;
+            }
+            Target other = (Target) o;
+            return port == other.port && host.equals(other.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * host.hashCode() + port;
+        }
+
+        @Override
+        public String toString() {
+            return host + ":" + port;
+        }
+    }
+
+    /**
+     * Outcome of probing a single target.
+     */
+    public static final class Result {
+
+        private final Status status;
+        private final int attempts;
+        private final long millis;
+        private final String lastError;
+
+        Result(Status status, int attempts, long millis, String lastError) {
+            this.status = status;
+            this.attempts = attempts;
+            this.millis = millis;
+            this.lastError = lastError;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isOpen() {
+            return status == Status.OPEN;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * @return milliseconds from the start of probing until the port opened or probing it ended
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * @return error of the last failed attempt, <code>null</code> if the port is open
+         */
+        public String getLastError() {
+            return lastError;
+        }
+    }
+}
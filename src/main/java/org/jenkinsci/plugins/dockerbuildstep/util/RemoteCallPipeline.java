@@ -0,0 +1,197 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import hudson.remoting.Callable;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Sends remote calls asynchronously, keeping at most given number of them in flight, so that independent calls for
+ * several containers overlap instead of running one after another. Outcomes are collected in the order in which the
+ * calls were submitted.
+ *
+ * @param <V>
+ *            return type of the calls
+ */
+public class RemoteCallPipeline<V> {
+
+    /**
+     * How long to wait for the oldest call in flight before checking whether any other call finished, in
+     * milliseconds. Remote futures don't notify on completion, so finished calls are found by polling.
+     */
+    static final long POLL_INTERVAL = 20;
+
+    private final VirtualChannel channel;
+    private final int window;
+    private final List<Pending<V>> calls = new ArrayList<Pending<V>>();
+
+    public RemoteCallPipeline(VirtualChannel channel, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least 1, was " + window);
+        }
+        this.channel = channel;
+        this.window = window;
+    }
+
+    /**
+     * Sends the call, first waiting for any call in flight to finish if the window is full.
+     *
+     * @param key
+     *            identifies the call in its outcome, typically container ID
+     */
+    public void submit(String key, Callable<V, ? extends Exception> callable) throws InterruptedException {
+        awaitCapacity();
+        try {
+            calls.add(new Pending<V>(key, channel.callAsync(callable)));
+        } catch (Exception e) {
+            // channel is closed, record failure in order
+            calls.add(new Pending<V>(key, e));
+        }
+    }
+
+    /**
+     * Waits for all submitted calls to finish.
+     *
+     * @return outcomes of all the calls in the order of submission
+     */
+    public List<Outcome<V>> awaitAll() throws InterruptedException {
+        List<Outcome<V>> outcomes = new ArrayList<Outcome<V>>();
+        for (Pending<V> call : calls) {
+            outcomes.add(call.outcome());
+        }
+        return outcomes;
+    }
+
+    /**
+     * Waits until fewer calls than the window are in flight, so that the next call can be sent right away.
+     */
+    public void awaitCapacity() throws InterruptedException {
+        while (running() >= window) {
+            awaitAny();
+        }
+    }
+
+    /**
+     * Checks all the calls which already finished, without waiting for the others.
+     *
+     * @return true if any of the calls finished so far failed
+     */
+    public boolean hasFailures() throws InterruptedException {
+        for (Pending<V> call : calls) {
+            if (call.isDone() && call.outcome().isFailed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int running() {
+        int running = 0;
+        for (Pending<V> call : calls) {
+            if (!call.isDone()) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    /**
+     * Waits a short time for the oldest running call, so that the caller can check again which calls finished.
+     */
+    private void awaitAny() throws InterruptedException {
+        for (Pending<V> call : calls) {
+            if (!call.isDone()) {
+                try {
+                    call.future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | TimeoutException e) {
+                    // finished with failure or still running, either way check all calls again
+                }
+                return;
+            }
+        }
+    }
+
+    private static final class Pending<V> {
+        final String key;
+        final Future<V> future;
+        final Throwable submitError;
+        private Outcome<V> outcome;
+
+        Pending(String key, Future<V> future) {
+            this.key = key;
+            this.future = future;
+            this.submitError = null;
+        }
+
+        Pending(String key, Throwable submitError) {
+            this.key = key;
+            this.future = null;
+            this.submitError = submitError;
+        }
+
+        boolean isDone() {
+            return future == null || future.isDone();
+        }
+
+        /**
+         * Waits for the call to finish.
+         */
+        Outcome<V> outcome() throws InterruptedException {
+            if (outcome == null) {
+                if (future == null) {
+                    outcome = new Outcome<V>(key, null, submitError);
+                } else {
+                    try {
+                        outcome = new Outcome<V>(key, future.get(), null);
+                    } catch (ExecutionException e) {
+                        outcome = new Outcome<V>(key, null, e.getCause() != null ? e.getCause() : e);
+                    }
+                }
+            }
+            return outcome;
+        }
+    }
+
+    /**
+     * Result of a single call, either its return value or the exception it failed with.
+     */
+    public static final class Outcome<V> {
+        private final String key;
+        private final V value;
+        private final Throwable error;
+
+        Outcome(String key, V value, Throwable error) {
+            this.key = key;
+            this.value = value;
+            this.error = error;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public String getErrorMessage() {
+            if (error == null) {
+                return null;
+            }
+            return error.getMessage() != null ? error.getMessage() : error.toString();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import hudson.EnvVars;
+import hudson.Util;
+import hudson.model.AbstractBuild;
+import hudson.util.LogTaskListener;
+import hudson.util.VariableResolver;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Build variables and environment of a build, computed once and used for resolving all the fields of a build step.
+ * Computing the environment runs all environment contributors, which is too expensive to be done for each field.
+ *
+ * The context is bound to the thread executing the step between {@link #open(AbstractBuild)} and {@link #close()},
+ * {@link Resolver#buildVar(AbstractBuild, String)} uses it when resolving variables of the same build. The step
+ * runs on a single thread, so the environment changes only when the step itself exports variables, e.g. IP addresses
+ * of started containers. It then calls {@link #invalidate(AbstractBuild)} to have the environment computed again.
+ */
+public final class ResolutionContext implements AutoCloseable {
+
+    private static final ThreadLocal<ResolutionContext> CURRENT = new ThreadLocal<ResolutionContext>();
+
+    private final AbstractBuild<?, ?> build;
+    private final ResolutionContext previous;
+
+    private VariableResolver<String> buildVariables;
+    private EnvVars env;
+    private boolean envComputed;
+
+    ResolutionContext(AbstractBuild<?, ?> build, ResolutionContext previous) {
+        this.build = build;
+        this.previous = previous;
+    }
+
+    /**
+     * Binds new context for given build to the current thread. Must be closed, preferably by try-with-resources.
+     */
+    public static ResolutionContext open(AbstractBuild<?, ?> build) {
+        ResolutionContext ctx = new ResolutionContext(build, CURRENT.get());
+        CURRENT.set(ctx);
+        return ctx;
+    }
+
+    /**
+     * @return context bound to the current thread if it belongs to given build, <code>null</code> otherwise
+     */
+    static ResolutionContext current(AbstractBuild<?, ?> build) {
+        ResolutionContext ctx = CURRENT.get();
+        return ctx != null && ctx.build == build ? ctx : null;
+    }
+
+    /**
+     * Makes the context bound to the current thread compute the environment of given build again when it's needed
+     * next. Does nothing if there is no context for the build.
+     */
+    public static void invalidate(AbstractBuild<?, ?> build) {
+        ResolutionContext ctx = current(build);
+        if (ctx != null) {
+            ctx.envComputed = false;
+            ctx.env = null;
+        }
+    }
+
+    public String expand(String toResolve) {
+        if (toResolve == null) {
+            return null;
+        }
+        if (buildVariables == null) {
+            buildVariables = build.getBuildVariableResolver();
+        }
+        String resolved = Util.replaceMacro(toResolve, buildVariables);
+        EnvVars env = getEnvironment();
+        return env == null ? resolved : env.expand(resolved);
+    }
+
+    /**
+     * @return environment of the build, <code>null</code> if it cannot be computed
+     */
+    EnvVars getEnvironment() {
+        if (!envComputed) {
+            envComputed = true;
+            try {
+                env = build.getEnvironment(new LogTaskListener(LOG, Level.INFO));
+            } catch (Exception e) {
+                env = null;
+            }
+        }
+        return env;
+    }
+
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private static final Logger LOG = Logger.getLogger(ResolutionContext.class.getName());
+}
@@ -3,11 +3,6 @@ package org.jenkinsci.plugins.dockerbuildstep.util;
 import hudson.EnvVars;
 import hudson.Util;
 import hudson.model.AbstractBuild;
-import hudson.util.LogTaskListener;
-import hudson.util.VariableResolver;
-
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Convenient class for resolving/expanding various variabales.
@@ -24,20 +19,30 @@ public class Resolver {
         if (build == null) // is null when called from config page to test connection
             return toResolve;
         
-        VariableResolver<String> vr = build.getBuildVariableResolver();
-        String resolved = Util.replaceMacro(toResolve, vr);
-        try {
-            EnvVars env = build.getEnvironment(new LogTaskListener(LOG, Level.INFO));
-            resolved = env.expand(resolved);
-        } catch (Exception e) {
-            //TODO no-op?
+        // within a build step, the variables are computed only once, see ResolutionContext
+        ResolutionContext ctx = ResolutionContext.current(build);
+        if (ctx == null) {
+            ctx = new ResolutionContext(build, null);
         }
-        return resolved;
+        return ctx.expand(toResolve);
+    }
+    
+    /**
+     * @return value of given variable in the build environment, <code>null</code> if it isn't set
+     */
+    public static String buildEnvVar(final AbstractBuild<?, ?> build, final String name) {
+        if (build == null)
+            return null;
+
+        ResolutionContext ctx = ResolutionContext.current(build);
+        if (ctx == null) {
+            ctx = new ResolutionContext(build, null);
+        }
+        EnvVars env = ctx.getEnvironment();
+        return env == null ? null : env.get(name);
     }
     
     public static String envVar(final String toResolve) {
          return Util.replaceMacro(toResolve, System.getenv());
     }
-    
-    private static final Logger LOG = Logger.getLogger(Resolver.class.getName());
 }
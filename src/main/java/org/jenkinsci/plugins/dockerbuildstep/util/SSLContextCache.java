@@ -0,0 +1,103 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.io.File;
+import java.io.Serializable;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.net.ssl.SSLContext;
+
+import com.github.dockerjava.core.LocalDirectorySSLConfig;
+import com.github.dockerjava.core.SSLConfig;
+
+/**
+ * Keeps SSL contexts built from Docker certificate directories, so that the PEM files are read and parsed only once
+ * and not for every client. A context is rebuilt when any of the certificate files changes.
+ *
+ * All clients of the same certificate directory share one context and thus its client session cache, so that TLS
+ * sessions are resumed instead of doing a full handshake for each new connection.
+ */
+public final class SSLContextCache {
+
+    private static final String[] CERT_FILES = { "key.pem", "cert.pem", "ca.pem" };
+
+    private static final Map<String, Entry> CONTEXTS = new ConcurrentHashMap<String, Entry>();
+
+    private SSLContextCache() {
+    }
+
+    /**
+     * @return SSL configuration using the cached context of given certificate directory
+     */
+    public static SSLConfig sslConfig(String dockerCertPath) {
+        return new CachedSSLConfig(dockerCertPath);
+    }
+
+    /**
+     * @return SSL context built from given certificate directory, <code>null</code> if it doesn't contain the
+     *         certificates
+     */
+    public static synchronized SSLContext get(String dockerCertPath) throws KeyManagementException,
+            UnrecoverableKeyException, NoSuchAlgorithmException, KeyStoreException {
+        String dir = new File(dockerCertPath).getAbsolutePath();
+        String stamp = stamp(dir);
+        Entry entry = CONTEXTS.get(dir);
+        if (entry != null && entry.stamp.equals(stamp)) {
+            return entry.context;
+        }
+
+        SSLContext context = new LocalDirectorySSLConfig(dir).getSSLContext();
+        if (context == null) {
+            CONTEXTS.remove(dir);
+        } else {
+            CONTEXTS.put(dir, new Entry(stamp, context));
+        }
+        return context;
+    }
+
+    public static synchronized void clear() {
+        CONTEXTS.clear();
+    }
+
+    /**
+     * @return modification times and sizes of the certificate files, which change whenever the certificates do
+     */
+    private static String stamp(String dir) {
+        StringBuilder stamp = new StringBuilder();
+        for (String name : CERT_FILES) {
+            File file = new File(dir, name);
+            stamp.append(file.lastModified()).append(':').append(file.length()).append(';');
+        }
+        return stamp.toString();
+    }
+
+    private static final class Entry {
+        final String stamp;
+        final SSLContext context;
+
+        Entry(String stamp, SSLContext context) {
+            this.stamp = stamp;
+            this.context = context;
+        }
+    }
+
+    private static final class CachedSSLConfig implements SSLConfig, Serializable {
+
+        private static final long serialVersionUID = -2650947398721504367L;
+
+        private final String dockerCertPath;
+
+        CachedSSLConfig(String dockerCertPath) {
+            this.dockerCertPath = dockerCertPath;
+        }
+
+        public SSLContext getSSLContext() throws KeyManagementException, UnrecoverableKeyException,
+                NoSuchAlgorithmException, KeyStoreException {
+            return get(dockerCertPath);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.jenkinsci.plugins.dockerbuildstep;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.SleepBuilder;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Container;
+
+public class DockerContainerReaperTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private static Container container(String job, String build, long createdMillis) throws Exception {
+        return MAPPER.readValue(String.format("{\"Id\":\"c1\",\"Created\":%d,\"Labels\":{\"%s\":\"%s\",\"%s\":\"%s\"}}",
+                TimeUnit.MILLISECONDS.toSeconds(createdMillis), OwnershipLabels.JOB, job, OwnershipLabels.BUILD,
+                build), Container.class);
+    }
+
+    @Test
+    public void containersOfFinishedAndDeletedBuildsAreOrphaned() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+        long created = build.getStartTimeInMillis();
+
+        assertTrue(DockerContainerReaper.isOrphaned(container("job", "1", created), 0));
+        assertFalse("finished within grace period",
+                DockerContainerReaper.isOrphaned(container("job", "1", created), TimeUnit.MINUTES.toMillis(10)));
+        build.delete();
+        assertTrue("deleted build", DockerContainerReaper.isOrphaned(container("job", "1", created), 0));
+        assertFalse("build not started yet", DockerContainerReaper.isOrphaned(container("job", "2", created), 0));
+    }
+
+    @Test
+    public void containersOfMissingJobsAreKept() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+        long created = build.getStartTimeInMillis();
+        project.renameTo("renamed");
+
+        // the labels keep the old name, so the build can't be found
+        assertFalse("renamed job", DockerContainerReaper.isOrphaned(container("job", "1", created), 0));
+        assertFalse("unknown job", DockerContainerReaper.isOrphaned(container("gone", "1", created), 0));
+    }
+
+    @Test
+    public void containersOfRunningBuildsAreKept() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        project.getBuildersList().add(new SleepBuilder(60000));
+        FreeStyleBuild build = project.scheduleBuild2(0).waitForStart();
+
+        assertFalse(DockerContainerReaper.isOrphaned(container("job", "1", build.getStartTimeInMillis()), 0));
+
+        build.doStop();
+        j.waitForCompletion(build);
+    }
+}
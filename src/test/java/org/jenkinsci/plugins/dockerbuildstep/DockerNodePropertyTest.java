@@ -0,0 +1,100 @@
+package org.jenkinsci.plugins.dockerbuildstep;
+
+import static org.junit.Assert.*;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerEndpointAction;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Checks which Docker server {@link DockerBuilder.DescriptorImpl#getConfig(hudson.model.AbstractBuild)} picks for a
+ * build: the chosen endpoint, then the node-local server and finally the global one.
+ */
+public class DockerNodePropertyTest {
+
+    private static final String LOCAL_URL = "unix:///var/run/docker.sock";
+    private static final String ENV_URL = "tcp://from-env:2375";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private DockerBuilder.DescriptorImpl descriptor;
+    private FreeStyleProject project;
+
+    @Before
+    public void setUp() throws Exception {
+        descriptor = j.jenkins.getDescriptorByType(DockerBuilder.DescriptorImpl.class);
+        project = j.createFreeStyleProject("job");
+    }
+
+    private void setNodeProperty(String dockerUrl) throws Exception {
+        j.jenkins.getNodeProperties().replace(new DockerNodeProperty(dockerUrl, "1.41", null));
+    }
+
+    private void setUrlEnvVar() throws Exception {
+        project.addProperty(new ParametersDefinitionProperty(
+                new StringParameterDefinition(DockerNodeProperty.URL_ENV_VAR, ENV_URL, "")));
+    }
+
+    @Test
+    public void globalServerIsUsedWithoutNodeLocalOne() throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+
+        assertNull(DockerNodeProperty.forBuild(build));
+        assertEquals(descriptor.getDockerUrl(), descriptor.getConfig(build).dockerUrlRes);
+    }
+
+    @Test
+    public void nodePropertyOverridesGlobalServer() throws Exception {
+        setNodeProperty(LOCAL_URL);
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+
+        Config cfg = descriptor.getConfig(build);
+        assertEquals(LOCAL_URL, cfg.dockerUrlRes);
+        assertEquals("1.41", cfg.dockerVersionRes);
+        assertNull(cfg.dockerCertPathRes);
+    }
+
+    @Test
+    public void environmentVariableIsUsedWithoutNodeProperty() throws Exception {
+        setUrlEnvVar();
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+
+        assertEquals(ENV_URL, descriptor.getConfig(build).dockerUrlRes);
+    }
+
+    @Test
+    public void nodePropertyOverridesEnvironmentVariable() throws Exception {
+        setUrlEnvVar();
+        setNodeProperty(LOCAL_URL);
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+
+        assertEquals(LOCAL_URL, descriptor.getConfig(build).dockerUrlRes);
+    }
+
+    @Test
+    public void blankNodePropertyFallsBackToEnvironmentVariable() throws Exception {
+        setUrlEnvVar();
+        setNodeProperty(" ");
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+
+        assertEquals(ENV_URL, descriptor.getConfig(build).dockerUrlRes);
+    }
+
+    @Test
+    public void chosenEndpointOverridesNodeProperty() throws Exception {
+        setNodeProperty(LOCAL_URL);
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+        build.addAction(new DockerEndpointAction("tcp://chosen:2375", null, null));
+
+        assertEquals("tcp://chosen:2375", descriptor.getConfig(build).dockerUrlRes);
+    }
+}
@@ -0,0 +1,60 @@
+package org.jenkinsci.plugins.dockerbuildstep.action;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.Ports.Binding;
+
+public class ContainerInfoTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    public void extractsUsedFields() throws Exception {
+        InspectContainerResponse inspectResp = MAPPER.readValue("{"
+                + "\"Id\": \"3f4e1c8a9b2d\", \"Name\": \"/web\","
+                + "\"Config\": {\"Hostname\": \"web-host\"},"
+                + "\"State\": {\"Status\": \"running\", \"Running\": true, \"ExitCode\": 0,"
+                + "  \"Health\": {\"Status\": \"healthy\"}},"
+                + "\"NetworkSettings\": {\"IPAddress\": \"172.17.0.2\","
+                + "  \"Ports\": {\"80/tcp\": [{\"HostIp\": \"0.0.0.0\", \"HostPort\": \"8080\"}]}}"
+                + "}", InspectContainerResponse.class);
+
+        ContainerInfo info = ContainerInfo.from(inspectResp);
+
+        assertEquals("3f4e1c8a9b2d", info.getId());
+        assertEquals("/web", info.getName());
+        assertEquals("web-host", info.getHostName());
+        assertEquals("172.17.0.2", info.getIpAddress());
+        assertEquals("running", info.getStatus());
+        assertTrue(info.isRunning());
+        assertEquals(Long.valueOf(0), info.getExitCode());
+        assertEquals("healthy", info.getHealth());
+
+        Map<ExposedPort, Binding[]> bindings = info.getPortBindings();
+        assertEquals(1, bindings.size());
+        assertEquals("8080", bindings.get(ExposedPort.tcp(80))[0].getHostPortSpec());
+    }
+
+    @Test
+    public void toleratesMissingSections() throws Exception {
+        InspectContainerResponse inspectResp = MAPPER.readValue("{\"Id\": \"3f4e1c8a9b2d\"}",
+                InspectContainerResponse.class);
+
+        ContainerInfo info = ContainerInfo.from(inspectResp);
+
+        assertEquals("3f4e1c8a9b2d", info.getId());
+        assertNull(info.getIpAddress());
+        assertFalse(info.isRunning());
+        assertTrue(info.getPortBindings().isEmpty());
+        assertFalse(new EnvInvisibleAction(info).hasPortBindings());
+    }
+}
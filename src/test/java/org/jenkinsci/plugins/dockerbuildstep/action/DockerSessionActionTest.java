@@ -0,0 +1,119 @@
+package org.jenkinsci.plugins.dockerbuildstep.action;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.SleepBuilder;
+
+import com.github.dockerjava.api.DockerClient;
+
+public class DockerSessionActionTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private final AtomicInteger closed = new AtomicInteger();
+    private final DockerClientCache clients = new DockerClientCache(1, TimeUnit.HOURS, 8);
+
+    private FreeStyleBuild build;
+
+    @Before
+    public void startBuild() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject("job");
+        project.getBuildersList().add(new SleepBuilder(60000));
+        build = project.scheduleBuild2(0).waitForStart();
+    }
+
+    @After
+    public void stopBuild() throws Exception {
+        if (build.isBuilding()) {
+            build.doStop();
+            j.waitForCompletion(build);
+        }
+    }
+
+    private DockerClient newClient() {
+        return (DockerClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DockerClient.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "close":
+                        closed.incrementAndGet();
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                    }
+                });
+    }
+
+    private DockerClientCache.Lease lease(Config cfg) {
+        return clients.acquire(new DockerClientCache.Key(cfg, null), this::newClient);
+    }
+
+    @Test
+    public void resetMakesNextStepUseChosenEndpoint() throws Exception {
+        DockerBuilder.DescriptorImpl descriptor = j.jenkins.getDescriptorByType(DockerBuilder.DescriptorImpl.class);
+        Config global = descriptor.getConfig(build);
+        DockerSessionAction session = DockerSessionAction.of(build);
+        assertSame("settings are resolved once per build", global, session.getConfig());
+
+        // what placement does after choosing a server
+        build.addAction(new DockerEndpointAction("tcp://chosen:2375", null, null));
+        assertSame(global, descriptor.getConfig(build));
+        session.reset();
+
+        assertEquals("tcp://chosen:2375", descriptor.getConfig(build).dockerUrlRes);
+        assertEquals("tcp://chosen:2375", session.getConfig().dockerUrlRes);
+    }
+
+    @Test
+    public void clientIsKeptForSameSettingsAndReleasedOnChange() {
+        DockerSessionAction session = DockerSessionAction.of(build);
+        Config first = new Config("tcp://first:2375", null, null);
+        Config second = new Config("tcp://second:2375", null, null);
+
+        DockerClient client = session.getClient(first, () -> lease(first));
+        assertSame(client, session.getClient(first, () -> lease(first)));
+
+        clients.invalidateAll();
+        assertEquals("leased client isn't closed when evicted", 0, closed.get());
+
+        assertNotSame(client, session.getClient(second, () -> lease(second)));
+        assertEquals("lease of previous settings is released", 1, closed.get());
+    }
+
+    @Test
+    public void leaseIsReleasedWhenBuildCompletes() throws Exception {
+        DockerSessionAction session = DockerSessionAction.of(build);
+        Config cfg = new Config("tcp://docker:2375", null, null);
+        session.getClient(cfg, () -> lease(cfg));
+        session.recordContainer(new ContainerInfo("c1", "name", "c1", "172.17.0.2", null, "running", true, null, null));
+        clients.invalidateAll();
+        assertEquals(0, closed.get());
+
+        build.doStop();
+        j.waitForCompletion(build);
+
+        assertEquals("client is closed once the build releases it", 1, closed.get());
+        assertNull(build.getAction(DockerSessionAction.class));
+        assertTrue(session.getContainers().isEmpty());
+        assertNull(DockerSessionAction.of(build));
+    }
+}
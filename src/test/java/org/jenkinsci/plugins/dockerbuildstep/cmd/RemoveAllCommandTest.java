@@ -0,0 +1,158 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.StreamBuildListener;
+
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerEndpointAction;
+import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels.Scope;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Prunes containers on a local stub of the Docker daemon with one container "c1" created from image "img".
+ */
+public class RemoveAllCommandTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    /**
+     * Requests in the order they were received, as method, path and decoded filters.
+     */
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+
+    private FreeStyleBuild build;
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().replaceAll("^/v[0-9.]+", "");
+        String query = exchange.getRequestURI().getRawQuery();
+        String filters = query == null ? "" : URLDecoder.decode(query, "UTF-8").replaceAll(".*filters=", "");
+        requests.add(exchange.getRequestMethod() + " " + path + (path.endsWith("/json") || path.endsWith("/prune")
+                ? " " + filters : ""));
+        if (path.endsWith("/containers/json")) {
+            StubDockerDaemon.send(exchange, "[{\"Id\":\"c1\",\"Image\":\"img\"}]");
+        } else if (path.endsWith("/wait")) {
+            StubDockerDaemon.send(exchange, "{\"StatusCode\":137}");
+        } else if (path.endsWith("/prune")) {
+            StubDockerDaemon.send(exchange, "{\"SpaceReclaimed\":0}");
+        } else {
+            StubDockerDaemon.sendStatus(exchange, 204);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        build = j.buildAndAssertSuccess(j.createFreeStyleProject("job"));
+        build.addAction(new DockerEndpointAction(daemon.config().dockerUrlRes, null, null));
+    }
+
+    private void execute(RemoveAllCommand command) throws Exception {
+        command.execute(j.createLocalLauncher(), build,
+                new ConsoleLogger(new StreamBuildListener(new ByteArrayOutputStream())));
+    }
+
+    private void prune(boolean force, String labels, String until, String ancestor) throws Exception {
+        execute(new RemoveAllCommand(false, force, true, false, false, false, labels, until, ancestor, Scope.ALL));
+    }
+
+    @Test
+    public void removeSelectsContainersOfScope() throws Exception {
+        execute(new RemoveAllCommand(false, true, false, false, false, false, null, null, null, Scope.BUILD));
+
+        assertEquals(2, requests.size());
+        String list = requests.get(0);
+        assertTrue(list, list.contains(OwnershipLabels.JOB + "=job"));
+        assertTrue(list, list.contains(OwnershipLabels.BUILD + "=1"));
+        assertTrue(list, list.contains(OwnershipLabels.controllerFilter()));
+        assertEquals("DELETE /containers/c1", requests.get(1));
+    }
+
+    @Test
+    public void removeOfAllContainersHasNoLabelFilter() throws Exception {
+        execute(new RemoveAllCommand(false, true, false, false, false, false, null, null, null, Scope.ALL));
+
+        assertFalse(requests.get(0), requests.get(0).contains("label"));
+    }
+
+    @Test
+    public void pruneIsScopedToJob() throws Exception {
+        execute(new RemoveAllCommand(false, false, true, false, false, false, "team=a", null, null, Scope.JOB));
+
+        String request = requests.get(0);
+        assertTrue(request, request.contains("\"team=a\""));
+        assertTrue(request, request.contains(OwnershipLabels.JOB + "=job"));
+        assertFalse(request, request.contains(OwnershipLabels.BUILD));
+    }
+
+    @Test
+    public void containersArePrunedWithLabelsAndUntil() throws Exception {
+        prune(false, "team=a", "24h", null);
+
+        assertEquals(1, requests.size());
+        String request = requests.get(0);
+        assertTrue(request, request.startsWith("POST /containers/prune "));
+        assertTrue(request, request.contains("\"label\":[\"team=a\"]"));
+        assertTrue(request, request.contains("\"until\":[\"24h\"]"));
+    }
+
+    @Test
+    public void ancestorFallsBackToRemovingStoppedContainers() throws Exception {
+        prune(false, "team=a", null, "img");
+
+        // the prune API can't select containers by image, and no other resources are pruned
+        assertEquals(2, requests.size());
+        String list = requests.get(0);
+        assertTrue(list, list.startsWith("GET /containers/json "));
+        assertTrue(list, list.contains("\"ancestor\":[\"img\"]"));
+        assertTrue(list, list.contains("\"status\":[\"created\",\"exited\",\"dead\"]"));
+        assertTrue(list, list.contains("\"label\":[\"team=a\"]"));
+        assertEquals("DELETE /containers/c1", requests.get(1));
+    }
+
+    @Test
+    public void untilCantBeCombinedWithForceOrAncestor() throws Exception {
+        try {
+            prune(true, null, "24h", null);
+            fail("forced prune would kill containers newer than the cutoff");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            prune(false, null, "24h", "img");
+            fail("listing by image would remove containers newer than the cutoff");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertTrue(requests.toString(), requests.isEmpty());
+    }
+
+    @Test
+    public void forcedPruneWaitsForKilledContainers() throws Exception {
+        prune(true, null, null, null);
+
+        assertEquals(4, requests.size());
+        assertTrue(requests.get(0), requests.get(0).startsWith("GET /containers/json "));
+        assertEquals(Arrays.asList("POST /containers/c1/kill", "POST /containers/c1/wait"), requests.subList(1, 3));
+        assertTrue(requests.get(3), requests.get(3).startsWith("POST /containers/prune "));
+    }
+}
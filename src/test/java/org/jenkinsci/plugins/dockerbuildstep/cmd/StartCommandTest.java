@@ -0,0 +1,106 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.StreamBuildListener;
+
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerEndpointAction;
+import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Starts containers on a local stub of the Docker daemon, where container "b" fails to start.
+ */
+public class StartCommandTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private final List<String> started = new CopyOnWriteArrayList<String>();
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    private FreeStyleBuild build;
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.replaceAll(".*/containers/([^/]+)/.*", "$1");
+        if (path.endsWith("/start")) {
+            started.add(id);
+            StubDockerDaemon.sendStatus(exchange, "b".equals(id) ? 500 : 204);
+        } else {
+            StubDockerDaemon.send(exchange, "{\"Id\":\"" + id + "\",\"Name\":\"/" + id
+                    + "\",\"State\":{\"Status\":\"running\",\"Running\":true}}");
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        build = j.buildAndAssertSuccess(j.createFreeStyleProject("job"));
+        build.addAction(new DockerEndpointAction(daemon.config().dockerUrlRes, null, null));
+    }
+
+    private void start(StartCommand command) throws Exception {
+        command.execute(j.createLocalLauncher(), build, new ConsoleLogger(new StreamBuildListener(log)));
+    }
+
+    private void start(boolean failFast) throws Exception {
+        start(new StartCommand("a,b,c,d", null, "", true, 1, failFast, 0, false));
+    }
+
+    @Test
+    public void startsOneByOneAndStopsAtFailureByDefault() throws Exception {
+        // settings of steps saved before starting in parallel was possible
+        try {
+            start(new StartCommand("a,b,c,d", null, "", false, 0, false, 0, false));
+            fail("failure should fail the step");
+        } catch (IllegalArgumentException e) {
+            assertEquals("1 container(s) failed to start", e.getMessage());
+        }
+
+        assertEquals(Arrays.asList("a", "b"), started);
+        assertEquals(1, daemon.takeMaxInFlight());
+    }
+
+    @Test
+    public void failFastSkipsContainersAfterFailure() throws Exception {
+        try {
+            start(true);
+            fail("failure should fail the step");
+        } catch (IllegalArgumentException e) {
+            assertEquals("1 container(s) failed to start", e.getMessage());
+        }
+
+        assertEquals(Arrays.asList("a", "b"), started);
+        assertTrue(log.toString(StandardCharsets.UTF_8.name()).contains("2 container(s) weren't started"));
+    }
+
+    @Test
+    public void allContainersAreStartedWithoutFailFast() throws Exception {
+        try {
+            start(false);
+            fail("failure should fail the step");
+        } catch (IllegalArgumentException e) {
+            assertEquals("1 container(s) failed to start", e.getMessage());
+        }
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), started);
+        assertFalse(log.toString(StandardCharsets.UTF_8.name()).contains("weren't started"));
+    }
+}
@@ -0,0 +1,105 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.StreamBuildListener;
+
+import org.jenkinsci.plugins.dockerbuildstep.action.DockerEndpointAction;
+import org.jenkinsci.plugins.dockerbuildstep.log.ConsoleLogger;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels;
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels.Scope;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Stops containers on a local stub of the Docker daemon with one running container "c1".
+ */
+public class StopAllCommandTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+
+    private FreeStyleBuild build;
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().replaceAll("^/v[0-9.]+", "");
+        if (path.endsWith("/containers/json")) {
+            String query = exchange.getRequestURI().getRawQuery();
+            requests.add("list " + (query == null ? "" : URLDecoder.decode(query, "UTF-8")));
+            StubDockerDaemon.send(exchange, "[{\"Id\":\"c1\",\"Image\":\"img\"}]");
+        } else {
+            requests.add(exchange.getRequestMethod() + " " + path);
+            StubDockerDaemon.sendStatus(exchange, 204);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        build = j.buildAndAssertSuccess(j.createFreeStyleProject("job"));
+        build.addAction(new DockerEndpointAction(daemon.config().dockerUrlRes, null, null));
+    }
+
+    private void stopAll(Scope scope) throws Exception {
+        stopAll(build, scope);
+    }
+
+    private void stopAll(FreeStyleBuild build, Scope scope) throws Exception {
+        new StopAllCommand(scope).execute(j.createLocalLauncher(), build,
+                new ConsoleLogger(new StreamBuildListener(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    public void jobScopeSelectsContainersOfAnyBuildOfTheJob() throws Exception {
+        stopAll(Scope.JOB);
+
+        assertEquals(2, requests.size());
+        String list = requests.get(0);
+        assertTrue(list, list.contains(OwnershipLabels.controllerFilter()));
+        assertTrue(list, list.contains(OwnershipLabels.JOB + "=job"));
+        assertFalse(list, list.contains(OwnershipLabels.BUILD));
+        assertEquals("POST /containers/c1/stop", requests.get(1));
+    }
+
+    @Test
+    public void buildScopeSelectsContainersOfTheBuild() throws Exception {
+        stopAll(Scope.BUILD);
+
+        assertTrue(requests.get(0), requests.get(0).contains(OwnershipLabels.BUILD + "=1"));
+    }
+
+    @Test
+    public void jobNameWithCommaIsOneLabelFilter() throws Exception {
+        FreeStyleBuild other = j.buildAndAssertSuccess(j.createFreeStyleProject("team,job"));
+        other.addAction(new DockerEndpointAction(daemon.config().dockerUrlRes, null, null));
+
+        stopAll(other, Scope.JOB);
+
+        String list = requests.get(0);
+        assertTrue(list, list.contains("\"" + OwnershipLabels.JOB + "=team,job\""));
+    }
+
+    @Test
+    public void allScopeHasNoLabelFilter() throws Exception {
+        stopAll(Scope.ALL);
+
+        assertFalse(requests.get(0), requests.get(0).contains("label"));
+        assertEquals("POST /containers/c1/stop", requests.get(1));
+    }
+}
@@ -0,0 +1,95 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Operation;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Type;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Runs batches on a local stub of the Docker daemon with three containers, of which container "b" can't be stopped.
+ */
+public class BatchRemoteCallableTest {
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+
+    private volatile boolean listFails;
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/containers/json")) {
+            if (listFails) {
+                StubDockerDaemon.sendStatus(exchange, 500);
+            } else {
+                StubDockerDaemon.send(exchange, "[{\"Id\":\"a\",\"Image\":\"img\"},{\"Id\":\"b\",\"Image\":\"img\"},"
+                        + "{\"Id\":\"c\",\"Image\":\"img\"}]");
+            }
+            return;
+        }
+        String id = path.replaceAll(".*/containers/([^/]+).*", "$1");
+        String operation = "DELETE".equals(exchange.getRequestMethod()) ? "remove"
+                : path.substring(path.lastIndexOf('/') + 1);
+        requests.add(operation + " " + id);
+        StubDockerDaemon.sendStatus(exchange, "stop".equals(operation) && "b".equals(id) ? 500 : 204);
+    }
+
+    @Test
+    public void operationsApplyToListedContainers() throws Exception {
+        List<Result> results = new BatchRemoteCallable(daemon.config(), Operation.list(true, null),
+                Operation.stop(null), Operation.remove(null, true, false)).call();
+
+        assertEquals(Arrays.asList("stop a", "stop b", "stop c", "remove a", "remove c"), requests);
+        assertEquals(5, results.size());
+        assertEquals(Type.STOP, results.get(0).getType());
+        assertEquals("a", results.get(0).getContainerId());
+        assertFalse(results.get(0).isFailed());
+        assertEquals(Type.REMOVE, results.get(4).getType());
+        assertEquals("c", results.get(4).getContainerId());
+    }
+
+    @Test
+    public void failedContainerIsSkippedByFollowingOperations() throws Exception {
+        List<Result> results = new BatchRemoteCallable(daemon.config(), Operation.list(true, null),
+                Operation.stop(null), Operation.remove(null, true, false)).call();
+
+        Result stopB = results.get(1);
+        assertEquals("b", stopB.getContainerId());
+        assertTrue(stopB.isFailed());
+        assertNotNull(stopB.getError());
+        for (Result result : results) {
+            if (result.getType() == Type.REMOVE) {
+                assertNotEquals("b", result.getContainerId());
+                assertFalse(result.isFailed());
+            }
+        }
+    }
+
+    @Test
+    public void failedListSelectsNothingButExplicitIdsStillRun() throws Exception {
+        listFails = true;
+
+        List<Result> results = new BatchRemoteCallable(daemon.config(), Operation.list(true, null),
+                Operation.stop(null), Operation.kill("c")).call();
+
+        assertEquals(Arrays.asList("kill c"), requests);
+        assertEquals(2, results.size());
+        assertEquals(Type.LIST, results.get(0).getType());
+        assertNull(results.get(0).getContainerId());
+        assertTrue(results.get(0).isFailed());
+        assertEquals(Type.KILL, results.get(1).getType());
+        assertFalse(results.get(1).isFailed());
+    }
+}
@@ -0,0 +1,113 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Operation;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.BatchRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.util.DockerClientCache;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.dockerjava.api.model.Container;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Selects containers of one image on a local stub of the Docker daemon running thousands of containers, once by
+ * listing all containers and filtering them on the agent, once by letting the daemon filter them.
+ */
+public class ContainerFilterBenchmarkTest {
+
+    private static final int CONTAINERS = 5000;
+    private static final int IMAGES = 500;
+    private static final String IMAGE = "image-7";
+
+    private static final Pattern ANCESTOR = Pattern.compile("\"ancestor\":\\[\"([^\"]+)\"\\]");
+
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final Set<String> stopped = ConcurrentHashMap.newKeySet();
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/containers/json")) {
+            list(exchange);
+            return;
+        }
+        if (path.endsWith("/stop")) {
+            stopped.add(path.replaceAll(".*/containers/([^/]+)/.*", "$1"));
+        }
+        StubDockerDaemon.sendStatus(exchange, 204);
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        String ancestor = null;
+        if (query != null) {
+            Matcher m = ANCESTOR.matcher(URLDecoder.decode(query, "UTF-8"));
+            if (m.find()) {
+                ancestor = m.group(1);
+            }
+        }
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < CONTAINERS; i++) {
+            String image = "image-" + (i % IMAGES);
+            if (ancestor != null && !ancestor.equals(image)) {
+                continue;
+            }
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(String.format("{\"Id\":\"%064d\",\"Names\":[\"/container-%d\"],\"Image\":\"%s\","
+                    + "\"Command\":\"sleep infinity\",\"Created\":1700000000,\"State\":\"running\","
+                    + "\"Status\":\"Up 2 hours\",\"Ports\":[],\"Labels\":{\"build\":\"%d\"}}", i, i, image, i));
+        }
+        String body = json.append(']').toString();
+        bytesSent.addAndGet(body.getBytes(StandardCharsets.UTF_8).length);
+        StubDockerDaemon.send(exchange, body);
+    }
+
+    @Test
+    public void daemonSideFilteringTransfersOnlyMatchingContainers() throws Exception {
+        // previous behaviour: list everything, compare images on the agent
+        Set<String> expected = new TreeSet<String>();
+        try (DockerClientCache.Lease lease = DockerClientRegistry.acquire(daemon.config(), null)) {
+            for (Container container : lease.getClient().listContainersCmd().withShowAll(false).exec()) {
+                if (IMAGE.equalsIgnoreCase(container.getImage())) {
+                    expected.add(container.getId());
+                }
+            }
+        }
+        long unfilteredBytes = bytesSent.getAndSet(0);
+
+        List<Result> results = new BatchRemoteCallable(daemon.config(), Operation.list(ContainerFilter.byImage(false, IMAGE)),
+                Operation.stop(null)).call();
+        long filteredBytes = bytesSent.get();
+
+        List<String> selected = new ArrayList<String>();
+        for (Result result : results) {
+            assertFalse(result.getError(), result.isFailed());
+            selected.add(result.getContainerId());
+        }
+        assertEquals(CONTAINERS / IMAGES, expected.size());
+        assertEquals(expected, new TreeSet<String>(selected));
+        assertEquals(expected, new TreeSet<String>(stopped));
+        assertTrue("daemon-side filtering should transfer a fraction of the listing, " + filteredBytes + " vs "
+                + unfilteredBytes + " bytes", filteredBytes * 100 < unfilteredBytes);
+    }
+}
@@ -0,0 +1,159 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.ContainerStateTracker.ContainerState;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Tracks container state on a local stub of the Docker daemon which streams events.
+ */
+public class ContainerStateTrackerTest {
+
+    private static final String RUNNING = "[{\"Id\":\"c1\",\"Names\":[\"/web\"],\"State\":\"running\","
+            + "\"Status\":\"Up 1 second\"}]";
+    private static final String DIE = "{\"Type\":\"container\",\"Action\":\"die\",\"status\":\"die\",\"id\":\"c1\","
+            + "\"time\":1,\"Actor\":{\"ID\":\"c1\",\"Attributes\":{\"exitCode\":\"3\",\"name\":\"web\"}}}";
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private final AtomicInteger listings = new AtomicInteger();
+    private final ExecutorService callers = Executors.newSingleThreadExecutor();
+
+    private volatile String listing;
+    private volatile String event;
+    private volatile long eventDelay = 300;
+    private volatile boolean keepStreamOpen = true;
+    private volatile CountDownLatch listingRequested = new CountDownLatch(0);
+    private volatile CountDownLatch listingReleased = new CountDownLatch(0);
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/containers/json")) {
+            listings.incrementAndGet();
+            listingRequested.countDown();
+            try {
+                listingReleased.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubDockerDaemon.send(exchange, listing);
+        } else if (path.endsWith("/events")) {
+            stream(exchange);
+        } else {
+            StubDockerDaemon.sendStatus(exchange, 404);
+        }
+    }
+
+    @After
+    public void shutdownTrackers() {
+        callers.shutdownNow();
+        ContainerStateTracker.shutdown();
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            String next = event;
+            if (next != null) {
+                Thread.sleep(eventDelay);
+                out.write((next + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            if (keepStreamOpen) {
+                daemon.awaitStop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void updatesStateFromEvents() throws Exception {
+        listing = RUNNING;
+        event = DIE;
+
+        ContainerStateTracker tracker = ContainerStateTracker.forConfig(daemon.config());
+        assertTrue(tracker.get("web").isRunning());
+
+        ContainerState state = tracker.await("web", s -> s != null && !s.isRunning(), 10000);
+        assertNotNull("die event not applied", state);
+        assertEquals("exited", state.getStatus());
+        assertEquals(Integer.valueOf(3), state.getExitCode());
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    public void silentStreamOutlivesResponseTimeout() throws Exception {
+        listing = RUNNING;
+        event = DIE;
+        eventDelay = 2500;
+        Config withTimeout = new Config(daemon.config().dockerUrlRes, null, null, 8, 5, 1);
+
+        ContainerStateTracker tracker = ContainerStateTracker.forConfig(withTimeout);
+        ContainerState state = tracker.await("web", s -> s != null && !s.isRunning(), 10000);
+
+        assertNotNull("die event not applied", state);
+        assertEquals("stream shouldn't be cut off while waiting for events", 1, listings.get());
+    }
+
+    @Test
+    public void slowListingDoesNotBlockReaders() throws Exception {
+        listing = RUNNING;
+        // the container dies while the listing is on its way
+        event = DIE;
+        eventDelay = 0;
+        listingRequested = new CountDownLatch(1);
+        listingReleased = new CountDownLatch(1);
+
+        Future<ContainerStateTracker> connecting = callers.submit(() -> ContainerStateTracker.forConfig(
+                daemon.config()));
+        assertTrue(listingRequested.await(10, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        ContainerStateTracker tracker = ContainerStateTracker.forConfig(daemon.config());
+        assertFalse(tracker.isSynced());
+        assertNull(tracker.get("c1"));
+        assertTrue("readers shouldn't wait for the listing",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+
+        listingReleased.countDown();
+        assertSame(tracker, connecting.get(10, TimeUnit.SECONDS));
+        ContainerState state = tracker.await("c1", s -> s != null && !s.isRunning(), 10000);
+        assertNotNull("event received while listing not applied on top of it", state);
+        assertEquals(Integer.valueOf(3), state.getExitCode());
+    }
+
+    @Test
+    public void resyncsAfterReconnect() throws Exception {
+        listing = RUNNING;
+        keepStreamOpen = false;
+
+        ContainerStateTracker tracker = ContainerStateTracker.forConfig(daemon.config());
+        // the change happens while the stream is down, so only the listing after reconnecting shows it
+        listing = "[{\"Id\":\"c1\",\"Names\":[\"/web\"],\"State\":\"exited\",\"Status\":\"Exited (137) 1 second ago\"}]";
+
+        ContainerState state = tracker.await("c1", s -> s != null && !s.isRunning(), 10000);
+        assertNotNull("state not resynchronized", state);
+        assertEquals(Integer.valueOf(137), state.getExitCode());
+        assertTrue(listings.get() >= 2);
+    }
+}
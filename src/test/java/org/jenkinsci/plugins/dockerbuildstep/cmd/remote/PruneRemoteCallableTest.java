@@ -0,0 +1,90 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.dockerjava.api.model.PruneType;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Prunes resources on a local stub of the Docker daemon, which records the filters of each prune call. Pruning of
+ * networks fails.
+ */
+public class PruneRemoteCallableTest {
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    /**
+     * Decoded query of the prune call, by pruned resource, e.g. <code>containers</code>.
+     */
+    private final Map<String, String> queries = new ConcurrentHashMap<String, String>();
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String resource = path.replaceAll(".*/([^/]+)/prune$", "$1");
+        String query = exchange.getRequestURI().getRawQuery();
+        queries.put(resource, query == null ? "" : URLDecoder.decode(query, "UTF-8"));
+        if ("networks".equals(resource)) {
+            StubDockerDaemon.sendStatus(exchange, 500);
+        } else {
+            StubDockerDaemon.send(exchange, "{\"SpaceReclaimed\":1024}");
+        }
+    }
+
+    private List<PruneRemoteCallable.Result> prune(List<String> labels, String until, PruneType... types)
+            throws Exception {
+        return new PruneRemoteCallable(daemon.config(), Arrays.asList(types), labels, until).call();
+    }
+
+    @Test
+    public void labelsAndUntilAreSentAsFilters() throws Exception {
+        List<PruneRemoteCallable.Result> results = prune(Arrays.asList("team=a", "ci"), "24h", PruneType.CONTAINERS);
+
+        assertEquals(1, results.size());
+        assertEquals("CONTAINERS", results.get(0).getType());
+        assertEquals(1024, results.get(0).getSpaceReclaimed());
+        String query = queries.get("containers");
+        assertTrue(query, query.contains("\"label\":[\"team=a\",\"ci\"]"));
+        assertTrue(query, query.contains("\"until\":[\"24h\"]"));
+    }
+
+    @Test
+    public void untilIsSkippedForVolumes() throws Exception {
+        prune(Collections.singletonList("team=a"), "24h", PruneType.VOLUMES);
+
+        String query = queries.get("volumes");
+        assertTrue(query, query.contains("\"label\":[\"team=a\"]"));
+        assertFalse(query, query.contains("until"));
+    }
+
+    @Test
+    public void imagesArePrunedOnlyWhenDangling() throws Exception {
+        prune(null, null, PruneType.IMAGES);
+
+        String query = queries.get("images");
+        assertTrue(query, query.contains("\"dangling\":[\"true\"]"));
+        assertFalse(query, query.contains("label"));
+    }
+
+    @Test
+    public void failedTypeDoesNotStopTheOthers() throws Exception {
+        List<PruneRemoteCallable.Result> results = prune(null, null, PruneType.NETWORKS, PruneType.VOLUMES);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isFailed());
+        assertFalse(results.get(1).isFailed());
+        assertEquals(1024, results.get(1).getSpaceReclaimed());
+    }
+}
@@ -0,0 +1,82 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder;
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Measures how many bytes each remote call saves by sending only the connection settings instead of the whole
+ * {@link DockerBuilder.DescriptorImpl} along with them.
+ */
+public class RemoteCallableSizeTest {
+
+    /**
+     * Most bytes a callable with connection settings and a few arguments may take when serialized.
+     */
+    private static final int MAX_SIZE = 1024;
+
+    @Rule public JenkinsRule j = new JenkinsRule();
+
+    private final Config cfgData = new Config("tcp://docker.example.com:2376", "1.41", "/var/jenkins_home/certs", 16,
+            10, 0);
+
+    @Test
+    public void callablesDoNotCarryDescriptor() throws Exception {
+        DockerBuilder.DescriptorImpl descriptor = j.jenkins.getDescriptorByType(DockerBuilder.DescriptorImpl.class);
+        String id = "3f4e1c8a9b2d";
+
+        Map<String, Object> callables = new LinkedHashMap<>();
+        callables.put("start", new StartContainerRemoteCallable(cfgData, id));
+        callables.put("stop", new StopContainerRemoteCallable(cfgData, id));
+        callables.put("kill", new KillContainerRemoteCallable(cfgData, id));
+        callables.put("restart", new RestartContainerRemoteCallable(cfgData, id, 10));
+        callables.put("remove", new RemoveContainerRemoteCallable(cfgData, id, true, false));
+        callables.put("list", new ListContainersRemoteCallable(cfgData, true));
+        callables.put("commit", new CommitRemoteCallable(cfgData, id, "repo", "latest", null));
+        callables.put("tag", new TagImageRemoteCallable(cfgData, "image", "repo", "latest", false));
+        callables.put("remove image", new RemoveImageRemoteCallable(cfgData, "image", null));
+        callables.put("exec create", new ExecCreateRemoteCallable(cfgData, id, new String[] { "ls" }, false));
+
+        for (Map.Entry<String, Object> callable : callables.entrySet()) {
+            byte[] current = serialize(callable.getValue());
+            // the descriptor used to be sent as an extra field of each callable
+            int saved = serialize(callable.getValue(), descriptor).length - current.length;
+            String sizes = callable.getKey() + " takes " + current.length + " bytes, " + saved
+                    + " bytes less than with the descriptor";
+
+            assertFalse(callable.getKey(), new String(current, StandardCharsets.ISO_8859_1).contains("DescriptorImpl"));
+            assertTrue(sizes, current.length <= MAX_SIZE);
+        }
+    }
+
+    @Test
+    public void configSurvivesRoundTrip() throws Exception {
+        byte[] bytes = serialize(cfgData);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            assertEquals(cfgData, in.readObject());
+        }
+    }
+
+    private static byte[] serialize(Object... objects) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (Object o : objects) {
+                out.writeObject(o);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,127 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable.Mode;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.StopContainersRemoteCallable.Status;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Stops containers on a local stub of the Docker daemon, where one container takes much longer to stop or restart
+ * than the deadline.
+ */
+public class StopContainersRemoteCallableTest {
+
+    private static final long SLOW_STOP_MS = 5000;
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private final Set<String> killed = ConcurrentHashMap.newKeySet();
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+    private final Set<String> restarted = ConcurrentHashMap.newKeySet();
+    private final Set<String> started = ConcurrentHashMap.newKeySet();
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.replaceAll(".*/containers/([^/]+).*", "$1");
+        if (id.startsWith("gone")) {
+            StubDockerDaemon.sendStatus(exchange, 404);
+            return;
+        }
+        if ("DELETE".equals(exchange.getRequestMethod())) {
+            removed.add(id);
+        } else if (path.endsWith("/kill")) {
+            if (id.startsWith("stopped")) {
+                // stopped on its own just before the kill
+                StubDockerDaemon.sendStatus(exchange, 409);
+                return;
+            }
+            killed.add(id);
+        } else if (path.endsWith("/start")) {
+            started.add(id);
+        } else if (path.endsWith("/stop") || path.endsWith("/restart")) {
+            if (path.endsWith("/restart")) {
+                restarted.add(id);
+            }
+            if (id.startsWith("slow") || id.startsWith("stopped")) {
+                try {
+                    Thread.sleep(SLOW_STOP_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        StubDockerDaemon.sendStatus(exchange, 204);
+    }
+
+    @Test
+    public void killsContainersStillStoppingAtDeadline() throws Exception {
+        List<String> ids = Arrays.asList("fast1", "slow1", "fast2");
+
+        long start = System.nanoTime();
+        List<Result> results = new StopContainersRemoteCallable(daemon.config(), Mode.STOP, ids, 0, 1, 0).call();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(3, results.size());
+        assertEquals("fast1", results.get(0).getContainerId());
+        assertEquals(Status.DONE, results.get(0).getStatus());
+        assertEquals("slow1", results.get(1).getContainerId());
+        assertEquals(Status.KILLED_AT_DEADLINE, results.get(1).getStatus());
+        assertEquals(Status.DONE, results.get(2).getStatus());
+        assertEquals(Collections.singleton("slow1"), killed);
+        assertTrue("deadline should cut the slow stop short, took " + elapsed + " ms", elapsed < SLOW_STOP_MS);
+    }
+
+    @Test
+    public void containerStoppedBeforeDeadlineKillIsDone() throws Exception {
+        List<Result> results = new StopContainersRemoteCallable(daemon.config(), Mode.STOP,
+                Collections.singletonList("stopped1"), 0, 1, 0).call();
+
+        assertEquals(Status.DONE, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertTrue(killed.isEmpty());
+    }
+
+    @Test
+    public void restartStartsContainersWhichDidNotGetTheirTurn() throws Exception {
+        // with one container at a time, the second one is still waiting when the deadline passes
+        List<String> ids = Arrays.asList("slow1", "fast1");
+
+        List<Result> results = new StopContainersRemoteCallable(daemon.config(), Mode.RESTART, ids, 0, 1, 1).call();
+
+        assertEquals(Status.KILLED_AT_DEADLINE, results.get(0).getStatus());
+        assertEquals("fast1", results.get(1).getContainerId());
+        assertEquals(Status.KILLED_AT_DEADLINE, results.get(1).getStatus());
+        assertEquals(Collections.singleton("slow1"), restarted);
+        assertEquals(new HashSet<String>(ids), killed);
+        assertEquals("skipped container should be started again", Collections.singleton("fast1"), started);
+    }
+
+    @Test
+    public void teardownRemovesContainersAndSkipsGoneOnes() throws Exception {
+        List<String> ids = Arrays.asList("fast1", "gone1", "slow1");
+
+        List<Result> results = new StopContainersRemoteCallable(daemon.config(), Mode.TEARDOWN, ids, 0, 1, 0, true)
+                .call();
+
+        assertEquals(Status.DONE, results.get(0).getStatus());
+        assertEquals(Status.GONE, results.get(1).getStatus());
+        assertEquals(Status.KILLED_AT_DEADLINE, results.get(2).getStatus());
+        assertEquals(new HashSet<String>(Arrays.asList("fast1", "slow1")), removed);
+    }
+}
@@ -0,0 +1,195 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.WaitForContainerRemoteCallable.Condition;
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.WaitForContainerRemoteCallable.Result;
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Waits for a container on a local stub of the Docker daemon which reports the container healthy by an event and
+ * writes its log as interleaved stdout and stderr frames.
+ */
+public class WaitForContainerRemoteCallableTest {
+
+    private static final long HEALTHY_AFTER_MS = 500;
+
+    private static final byte STDOUT = 1;
+    private static final byte STDERR = 2;
+
+    private static final String HEALTHCHECK = "\"Config\":{\"Healthcheck\":{\"Test\":[\"CMD\",\"true\"]}}";
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private volatile String inspect = "{\"Id\":\"c1\",\"Name\":\"/web\",\"State\":{\"Status\":\"running\","
+            + "\"Running\":true}}";
+    private volatile byte[] log = new byte[0];
+    private volatile boolean keepLogOpen = true;
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/containers/json")) {
+            StubDockerDaemon.send(exchange, "[{\"Id\":\"c1\",\"Names\":[\"/web\"],\"State\":\"running\","
+                    + "\"Status\":\"Up 1 second (health: starting)\"}]");
+        } else if (path.matches(".*/containers/[^/]+/json")) {
+            StubDockerDaemon.send(exchange, inspect);
+        } else if (path.endsWith("/events")) {
+            stream(exchange, "application/json", ("{\"Type\":\"container\",\"Action\":\"health_status: healthy\","
+                    + "\"id\":\"c1\",\"time\":1,\"Actor\":{\"ID\":\"c1\",\"Attributes\":{\"name\":\"web\"}}}\n")
+                    .getBytes(StandardCharsets.UTF_8), HEALTHY_AFTER_MS, true);
+        } else if (path.endsWith("/logs")) {
+            stream(exchange, "application/vnd.docker.raw-stream", log, 0, keepLogOpen);
+        } else {
+            StubDockerDaemon.sendStatus(exchange, 404);
+        }
+    }
+
+    @After
+    public void shutdownTrackers() {
+        ContainerStateTracker.shutdown();
+    }
+
+    private void stream(HttpExchange exchange, String contentType, byte[] body, long delay, boolean keepOpen)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            Thread.sleep(delay);
+            out.write(body);
+            out.flush();
+            if (keepOpen) {
+                daemon.awaitStop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes frames of the multiplexed log stream, each given as stream type followed by its payload, as text or
+     * bytes.
+     */
+    private static byte[] frames(Object... typesAndPayloads) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < typesAndPayloads.length; i += 2) {
+            Object content = typesAndPayloads[i + 1];
+            byte[] payload = content instanceof byte[] ? (byte[]) content
+                    : ((String) content).getBytes(StandardCharsets.UTF_8);
+            out.write(ByteBuffer.allocate(8).put((Byte) typesAndPayloads[i]).putInt(4, payload.length).array());
+            out.write(payload);
+        }
+        return out.toByteArray();
+    }
+
+    private Result waitForLog(String logPattern) throws Exception {
+        return new WaitForContainerRemoteCallable(daemon.config(), Collections.singletonList("web"),
+                Condition.LOG_MATCHES, null, logPattern, 5).call().get(0);
+    }
+
+    private Result waitForHealthy() throws Exception {
+        return new WaitForContainerRemoteCallable(daemon.config(), Collections.singletonList("web"),
+                Condition.HEALTHY, null, null, 30).call().get(0);
+    }
+
+    @Test
+    public void healthyAsSoonAsHealthEventArrives() throws Exception {
+        inspect = "{\"Id\":\"c1\",\"Name\":\"/web\",\"State\":{\"Status\":\"running\",\"Running\":true,"
+                + "\"Health\":{\"Status\":\"starting\"}}," + HEALTHCHECK + "}";
+
+        Result result = waitForHealthy();
+
+        assertTrue(result.getError(), result.isMet());
+        assertTrue("took " + result.getMillis() + " ms", result.getMillis() < 10000);
+    }
+
+    @Test
+    public void healthCheckOfContainerNotStartedYetIsFound() throws Exception {
+        // the health state is reported only once the container runs
+        inspect = "{\"Id\":\"c1\",\"Name\":\"/web\",\"State\":{\"Status\":\"created\",\"Running\":false},"
+                + HEALTHCHECK + "}";
+
+        Result result = waitForHealthy();
+
+        assertTrue(result.getError(), result.isMet());
+    }
+
+    @Test
+    public void containerWithoutHealthCheckFails() throws Exception {
+        inspect = "{\"Id\":\"c1\",\"Name\":\"/web\",\"State\":{\"Status\":\"running\",\"Running\":true},"
+                + "\"Config\":{\"Healthcheck\":{\"Test\":[\"NONE\"]}}}";
+
+        Result result = waitForHealthy();
+
+        assertFalse(result.isMet());
+        assertEquals("container has no HEALTHCHECK", result.getError());
+    }
+
+    @Test
+    public void exitWithOtherCodeFailsImmediately() throws Exception {
+        inspect = "{\"Id\":\"c1\",\"Name\":\"/web\",\"State\":{\"Status\":\"exited\",\"Running\":false,"
+                + "\"ExitCode\":1}}";
+
+        List<Result> results = new WaitForContainerRemoteCallable(daemon.config(), Collections.singletonList("web"),
+                Condition.EXITED, 0, null, 30).call();
+
+        assertFalse(results.get(0).isMet());
+        assertEquals("exited, exit code 1", results.get(0).getState());
+        assertTrue("took " + results.get(0).getMillis() + " ms", results.get(0).getMillis() < 10000);
+    }
+
+    @Test
+    public void logLineSplitByStderrFrameMatches() throws Exception {
+        log = frames(STDOUT, "ready to acc", STDERR, "warning: slow disk\n", STDOUT, "ept connections\n");
+
+        Result result = waitForLog("ready to accept connections");
+
+        assertTrue(result.getError(), result.isMet());
+        assertTrue("match should end the wait, took " + result.getMillis() + " ms", result.getMillis() < 5000);
+    }
+
+    @Test
+    public void characterSplitAcrossFramesMatches() throws Exception {
+        byte[] line = "gr\u00fc\u00dfe\n".getBytes(StandardCharsets.UTF_8);
+        // the frame ends in the middle of the two bytes of the first umlaut
+        log = frames(STDOUT, Arrays.copyOfRange(line, 0, 3), STDOUT, Arrays.copyOfRange(line, 3, line.length));
+
+        Result result = waitForLog("gr\u00fc\u00dfe");
+
+        assertTrue(result.getError(), result.isMet());
+    }
+
+    @Test
+    public void linesOfOtherStreamDontMatch() throws Exception {
+        log = frames(STDOUT, "ready to ", STDERR, "accept connections\n");
+        keepLogOpen = false;
+
+        Result result = waitForLog("ready to accept");
+
+        assertFalse(result.isMet());
+    }
+
+    @Test
+    public void unterminatedLastLineMatches() throws Exception {
+        log = frames(STDERR, "started\n", STDOUT, "listening on 8080");
+        keepLogOpen = false;
+
+        Result result = waitForLog("listening on \\d+");
+
+        assertTrue(result.getError(), result.isMet());
+    }
+}
@@ -0,0 +1,114 @@
+package org.jenkinsci.plugins.dockerbuildstep.cmd.remote;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import hudson.model.StreamBuildListener;
+
+import org.jenkinsci.plugins.dockerbuildstep.util.StubDockerDaemon;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Waits for a port of container "c1" on a local stub of the Docker daemon. The container lists as created, as it
+ * would right after being started when the start event hasn't arrived yet, while inspecting gives its current state.
+ */
+public class WaitForPortsRemoteCallableTest {
+
+    private static final long OPEN_AFTER_MS = 1000;
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private final ScheduledExecutorService opener = Executors.newSingleThreadScheduledExecutor();
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    private volatile String state;
+    private volatile ServerSocket server;
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/containers/json")) {
+            StubDockerDaemon.send(exchange, "[{\"Id\":\"c1\",\"Names\":[\"/web\"],\"State\":\"created\","
+                    + "\"Status\":\"Created\"}]");
+        } else if (path.matches(".*/containers/[^/]+/json")) {
+            StubDockerDaemon.send(exchange, "{\"Id\":\"c1\",\"Name\":\"/web\",\"State\":" + state + ","
+                    + "\"NetworkSettings\":{\"IPAddress\":\"127.0.0.1\"}}");
+        } else if (path.endsWith("/events")) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.flush();
+                daemon.awaitStop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            StubDockerDaemon.sendStatus(exchange, 404);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        opener.shutdownNow();
+        ContainerStateTracker.shutdown();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private void waitForPort(int port) throws Exception {
+        new WaitForPortsRemoteCallable(new StreamBuildListener(log), daemon.config(), "c1 " + port, 10, true)
+                .call();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    public void staleStateDoesNotEndTheWait() throws Exception {
+        state = "{\"Status\":\"running\",\"Running\":true}";
+        int port = freePort();
+        opener.schedule(() -> {
+            server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+            return null;
+        }, OPEN_AFTER_MS, TimeUnit.MILLISECONDS);
+
+        waitForPort(port);
+
+        assertTrue(log.toString(StandardCharsets.UTF_8.name()), log.toString(StandardCharsets.UTF_8.name())
+                .contains("ready after"));
+    }
+
+    @Test
+    public void stoppedContainerEndsTheWait() throws Exception {
+        state = "{\"Status\":\"exited\",\"Running\":false,\"ExitCode\":1}";
+        int port = freePort();
+
+        long start = System.nanoTime();
+        try {
+            waitForPort(port);
+            fail("port of stopped container should fail the build");
+        } catch (IllegalStateException e) {
+            assertEquals("1 port(s) not available", e.getMessage());
+        }
+
+        assertTrue("shouldn't wait for the timeout", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        assertTrue(log.toString(StandardCharsets.UTF_8.name()).contains("won't become available"));
+    }
+}
@@ -0,0 +1,101 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.binary.Base64;
+import org.jenkinsci.plugins.docker.commons.credentials.DockerRegistryToken;
+import org.junit.Test;
+
+import com.github.dockerjava.api.model.AuthConfig;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+
+public class AuthConfigCacheTest {
+
+    private static final String REGISTRY = "https://registry.example.com/";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Cache<AuthConfigCache.Key, AuthConfig> cache = AuthConfigCache.newCache(60, new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    });
+
+    private AuthConfig get(String job) {
+        return AuthConfigCache.get(cache, new AuthConfigCache.Key(job, REGISTRY, "creds"), () -> {
+            loads.incrementAndGet();
+            return AuthConfigCache.toAuthConfig(REGISTRY, token("user:secret"));
+        });
+    }
+
+    private static DockerRegistryToken token(String credentials) {
+        return new DockerRegistryToken("user@example.com",
+                Base64.encodeBase64String(credentials.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void credentialsAreLoadedOncePerJob() {
+        assertEquals("user", get("a").getUsername());
+        assertEquals("secret", get("a").getPassword());
+        assertEquals(1, loads.get());
+
+        get("b");
+        assertEquals("other jobs may see other credentials", 2, loads.get());
+    }
+
+    @Test
+    public void entriesExpireAfterTtl() {
+        get("a");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        get("a");
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        get("a");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void callersGetTheirOwnCopy() {
+        AuthConfig first = get("a");
+        first.withPassword("changed");
+
+        AuthConfig second = get("a");
+        assertNotSame(first, second);
+        assertEquals("secret", second.getPassword());
+        assertEquals(REGISTRY, second.getRegistryAddress());
+        assertEquals("user@example.com", second.getEmail());
+    }
+
+    @Test
+    public void passwordMayContainColons() {
+        AuthConfig authConfig = AuthConfigCache.toAuthConfig(REGISTRY, token("user:pa:ss"));
+
+        assertEquals("user", authConfig.getUsername());
+        assertEquals("pa:ss", authConfig.getPassword());
+    }
+
+    @Test
+    public void tokenWithoutColonIsUserNameOnly() {
+        AuthConfig authConfig = AuthConfigCache.toAuthConfig(REGISTRY, token("user"));
+
+        assertEquals("user", authConfig.getUsername());
+        assertNull(authConfig.getPassword());
+    }
+
+    @Test
+    public void missingTokenGivesRegistryOnly() {
+        AuthConfig authConfig = AuthConfigCache.toAuthConfig(REGISTRY, null);
+
+        assertEquals(REGISTRY, authConfig.getRegistryAddress());
+        assertNull(authConfig.getUsername());
+    }
+}
@@ -0,0 +1,54 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class DaemonHealthTest {
+
+    @Test
+    public void opensAfterConsecutiveFailuresAndClosesOnSuccess() {
+        DaemonHealth health = new DaemonHealth("tcp://docker:2375", 3);
+        health.recordSuccess(12);
+        health.recordFailure("connection refused");
+        health.recordFailure("connection refused");
+        assertFalse(health.isOpen());
+        assertEquals(DaemonHealth.State.HEALTHY, health.getState());
+
+        health.recordFailure("connection refused");
+        assertTrue(health.isOpen());
+        assertEquals(DaemonHealth.State.UNHEALTHY, health.getState());
+        assertEquals("connection refused", health.getLastError());
+
+        health.recordSuccess(20);
+        assertFalse(health.isOpen());
+        assertNull(health.getLastError());
+        assertEquals("12 x x x 20", health.getLatencyHistoryText());
+        assertEquals(16, health.getAverageLatency());
+        assertEquals(60, health.getErrorRate());
+    }
+
+    @Test
+    public void neverOpensForDaemonNotReachableFromController() {
+        DaemonHealth health = new DaemonHealth("tcp://docker:2375", 3);
+        for (int i = 0; i < 10; i++) {
+            health.recordFailure("unknown host");
+        }
+        assertFalse(health.isOpen());
+        assertEquals(DaemonHealth.State.UNKNOWN, health.getState());
+        assertEquals(-1, health.getAverageLatency());
+    }
+
+    @Test
+    public void keepsBoundedHistory() {
+        DaemonHealth health = new DaemonHealth("tcp://docker:2375", 3);
+        for (long i = 0; i < DaemonHealth.HISTORY_SIZE + 5; i++) {
+            health.recordSuccess(i);
+        }
+        assertEquals(DaemonHealth.HISTORY_SIZE, health.getLatencyHistory().size());
+        assertEquals(Long.valueOf(5), health.getLatencyHistory().get(0));
+        assertEquals(Arrays.asList(23L, 24L), health.getLatencyHistory().subList(18, 20));
+    }
+}
@@ -0,0 +1,102 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.AuthConfig;
+
+public class DockerClientCacheTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    private DockerClient newClient() {
+        created.incrementAndGet();
+        return (DockerClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DockerClient.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "close":
+                        closed.incrementAndGet();
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "stub client";
+                    default:
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * Acquires a client for a short operation which is over right away.
+     */
+    private DockerClient get(DockerClientCache cache, DockerClientCache.Key key) {
+        try (DockerClientCache.Lease lease = cache.acquire(key, this::newClient)) {
+            return lease.getClient();
+        }
+    }
+
+    private static AuthConfig auth(String user) {
+        return new AuthConfig().withRegistryAddress("https://registry.example.com").withUsername(user)
+                .withPassword("secret");
+    }
+
+    @Test
+    public void reusesClientForSameKey() {
+        DockerClientCache cache = new DockerClientCache();
+        DockerClient first = get(cache, new DockerClientCache.Key("tcp://localhost:2375", "1.41", null, null));
+        DockerClient second = get(cache, new DockerClientCache.Key("tcp://localhost:2375", "1.41", null, null));
+
+        assertSame(first, second);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void separatesClientsByCredentials() {
+        DockerClientCache cache = new DockerClientCache();
+        DockerClient alice = get(cache, new DockerClientCache.Key("tcp://localhost:2375", null, null, auth("alice")));
+        DockerClient bob = get(cache, new DockerClientCache.Key("tcp://localhost:2375", null, null, auth("bob")));
+        DockerClient anonymous = get(cache, new DockerClientCache.Key("tcp://localhost:2375", null, null, null));
+
+        assertNotSame(alice, bob);
+        assertNotSame(alice, anonymous);
+        assertSame(alice, get(cache, new DockerClientCache.Key("tcp://localhost:2375", null, null, auth("alice"))));
+        assertEquals(3, created.get());
+    }
+
+    @Test
+    public void closesEvictedClients() {
+        DockerClientCache cache = new DockerClientCache(1, TimeUnit.HOURS, 1);
+        get(cache, new DockerClientCache.Key("tcp://a:2375", null, null, null));
+        get(cache, new DockerClientCache.Key("tcp://b:2375", null, null, null));
+
+        assertEquals(1, cache.size());
+        assertEquals(1, closed.get());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(2, closed.get());
+    }
+
+    @Test
+    public void closesLeasedClientOnlyAfterRelease() {
+        DockerClientCache cache = new DockerClientCache(1, TimeUnit.HOURS, 1);
+        DockerClientCache.Lease lease = cache.acquire(new DockerClientCache.Key("tcp://a:2375", null, null, null), this::newClient);
+        get(cache, new DockerClientCache.Key("tcp://b:2375", null, null, null));
+
+        assertEquals(0, closed.get());
+        lease.close();
+        assertEquals(1, closed.get());
+        lease.close();
+        assertEquals(1, closed.get());
+    }
+}
@@ -0,0 +1,79 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.dockerjava.api.DockerClient;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Runs parallel requests against a local stub of the Docker daemon and checks that the connection pool size limits
+ * how many requests reach the daemon at the same time.
+ */
+public class DockerClientFactoryLoadTest {
+
+    private static final int CALLERS = 16;
+
+    @Rule
+    public StubDockerDaemon daemon = new StubDockerDaemon(this::handle);
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    private volatile CountDownLatch allConnected = new CountDownLatch(0);
+
+    private void handle(HttpExchange exchange) throws IOException {
+        // hold each request until the pool is expected to be fully used, so the maximum is actually reached
+        allConnected.countDown();
+        try {
+            allConnected.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, 2);
+        exchange.getResponseBody().write("OK".getBytes(StandardCharsets.UTF_8));
+        exchange.close();
+    }
+
+    @After
+    public void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void poolSizeLimitsConcurrentConnections() throws Exception {
+        assertEquals(1, maxConcurrentRequests(1));
+        assertEquals(4, maxConcurrentRequests(4));
+        assertEquals(CALLERS, maxConcurrentRequests(CALLERS));
+    }
+
+    private int maxConcurrentRequests(int maxConnections) throws Exception {
+        try (DockerClient client = DockerClientFactory.create(daemon.config(maxConnections), null)) {
+            client.pingCmd().exec();
+            daemon.takeMaxInFlight();
+
+            allConnected = new CountDownLatch(maxConnections);
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS * 2; i++) {
+                results.add(callers.submit(() -> client.pingCmd().exec()));
+            }
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+            return daemon.takeMaxInFlight();
+        }
+    }
+}
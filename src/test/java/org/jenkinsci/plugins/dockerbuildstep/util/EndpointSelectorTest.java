@@ -0,0 +1,66 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.jenkinsci.plugins.dockerbuildstep.cmd.remote.EndpointLoadRemoteCallable.Load;
+import org.junit.Test;
+
+public class EndpointSelectorTest {
+
+    private static final long GIB = 1024L * 1024 * 1024;
+
+    @Test
+    public void choosesLeastLoadedRelativeToCapacity() {
+        // 10 containers on 16 GiB is less loaded than 4 containers on 4 GiB
+        int chosen = EndpointSelector.choose(Arrays.asList(new Load(4, 4 * GIB, null), new Load(10, 16 * GIB, null)),
+                Arrays.asList(1, 1), Arrays.asList(0, 0));
+        assertEquals(1, chosen);
+    }
+
+    @Test
+    public void countsWeightAndInFlightOperations() {
+        assertEquals(1, EndpointSelector.choose(Arrays.asList(new Load(4, null, null), new Load(6, null, null)),
+                Arrays.asList(1, 2), Arrays.asList(0, 0)));
+        assertEquals(1, EndpointSelector.choose(Arrays.asList(new Load(2, null, null), new Load(3, null, null)),
+                Arrays.asList(1, 1), Arrays.asList(5, 0)));
+    }
+
+    @Test
+    public void skipsUnreachableEndpoints() {
+        assertEquals(1, EndpointSelector.choose(Arrays.asList(new Load(null, null, "connection refused"),
+                new Load(50, null, null)), Arrays.asList(1, 1), Arrays.asList(0, 0)));
+        assertEquals(-1, EndpointSelector.choose(Arrays.asList(new Load(null, null, "connection refused")),
+                Arrays.asList(1), Arrays.asList(0)));
+    }
+
+    @Test
+    public void tracksInFlightOperations() {
+        String url = "tcp://in-flight.example.com:2376";
+        EndpointSelector.begin(url);
+        EndpointSelector.begin(url);
+        EndpointSelector.end(url);
+        assertEquals(1, EndpointSelector.inFlight(url));
+        EndpointSelector.end(url);
+        assertEquals(0, EndpointSelector.inFlight(url));
+    }
+
+    @Test
+    public void usageMovesToChosenEndpoint() {
+        String global = "tcp://global.example.com:2376";
+        String chosen = "tcp://chosen.example.com:2376";
+        try (EndpointSelector.Usage usage = EndpointSelector.use(global)) {
+            assertEquals(1, EndpointSelector.inFlight(global));
+            EndpointSelector.moveTo(chosen);
+            assertEquals(chosen, usage.getDockerUrl());
+            assertEquals(0, EndpointSelector.inFlight(global));
+            assertEquals(1, EndpointSelector.inFlight(chosen));
+        }
+        assertEquals(0, EndpointSelector.inFlight(chosen));
+
+        // outside of a command there is nothing to move
+        EndpointSelector.moveTo(global);
+        assertEquals(0, EndpointSelector.inFlight(global));
+    }
+}
@@ -0,0 +1,70 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+import org.jenkinsci.plugins.dockerbuildstep.util.OwnershipLabels.Scope;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+
+public class OwnershipLabelsTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FreeStyleBuild build;
+    private String controller;
+
+    @Before
+    public void setUp() throws Exception {
+        MockFolder folder = j.createFolder("folder");
+        build = j.buildAndAssertSuccess(folder.createProject(FreeStyleProject.class, "job"));
+        controller = OwnershipLabels.CONTROLLER + "=" + j.jenkins.getLegacyInstanceId();
+    }
+
+    @Test
+    public void labelsIdentifyControllerJobAndBuild() {
+        Map<String, String> labels = OwnershipLabels.forBuild(build);
+
+        assertEquals(Arrays.asList(OwnershipLabels.CONTROLLER, OwnershipLabels.JOB, OwnershipLabels.BUILD),
+                Arrays.asList(labels.keySet().toArray()));
+        assertEquals(j.jenkins.getLegacyInstanceId(), labels.get(OwnershipLabels.CONTROLLER));
+        assertEquals("folder/job", labels.get(OwnershipLabels.JOB));
+        assertEquals("1", labels.get(OwnershipLabels.BUILD));
+        assertEquals(controller, OwnershipLabels.controllerFilter());
+    }
+
+    @Test
+    public void allScopeHasNoFilters() {
+        assertTrue(OwnershipLabels.filters(build, Scope.ALL).isEmpty());
+        assertTrue(OwnershipLabels.filters(build, null).isEmpty());
+    }
+
+    @Test
+    public void jobScopeSelectsAllBuildsOfTheJob() {
+        assertEquals(Arrays.asList(controller, OwnershipLabels.JOB + "=folder/job"),
+                OwnershipLabels.filters(build, Scope.JOB));
+    }
+
+    @Test
+    public void jobNameWithCommaStaysOneFilter() throws Exception {
+        FreeStyleBuild other = j.buildAndAssertSuccess(j.createFreeStyleProject("team,job"));
+
+        assertEquals(Arrays.asList(controller, OwnershipLabels.JOB + "=team,job"),
+                OwnershipLabels.filters(other, Scope.JOB));
+    }
+
+    @Test
+    public void buildScopeSelectsOnlyTheBuild() {
+        assertEquals(Arrays.asList(controller, OwnershipLabels.JOB + "=folder/job", OwnershipLabels.BUILD + "=1"),
+                OwnershipLabels.filters(build, Scope.BUILD));
+    }
+}
@@ -0,0 +1,124 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.jenkinsci.plugins.dockerbuildstep.util.PortProber.Result;
+import org.jenkinsci.plugins.dockerbuildstep.util.PortProber.Status;
+import org.jenkinsci.plugins.dockerbuildstep.util.PortProber.Target;
+import org.junit.After;
+import org.junit.Test;
+
+public class PortProberTest {
+
+    private static final String LOOPBACK = "127.0.0.1";
+
+    private final List<ServerSocket> servers = new ArrayList<ServerSocket>();
+
+    @After
+    public void closeServers() throws IOException {
+        for (ServerSocket server : servers) {
+            server.close();
+        }
+    }
+
+    private ServerSocket listen(int port) throws IOException {
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getByName(LOOPBACK));
+        servers.add(server);
+        return server;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getByName(LOOPBACK))) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    public void openPortsAreProbedConcurrently() throws Exception {
+        List<Target> targets = new ArrayList<Target>();
+        for (int i = 0; i < 15; i++) {
+            targets.add(new Target(LOOPBACK, listen(0).getLocalPort()));
+        }
+
+        long start = System.currentTimeMillis();
+        Map<Target, Result> results = new PortProber().probe(targets, 10000);
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(targets, new ArrayList<Target>(results.keySet()));
+        for (Result result : results.values()) {
+            assertTrue(result.isOpen());
+            assertEquals(1, result.getAttempts());
+        }
+    }
+
+    @Test
+    public void finishesAsSoonAsLastPortOpens() throws Exception {
+        Target open = new Target(LOOPBACK, listen(0).getLocalPort());
+        int latePort = freePort();
+        Target late = new Target(LOOPBACK, latePort);
+
+        Thread opener = new Thread(() -> {
+            try {
+                Thread.sleep(700);
+                listen(latePort);
+            } catch (Exception e) {
+                // the probe times out and the test fails
+            }
+        });
+        opener.start();
+        long start = System.currentTimeMillis();
+        Map<Target, Result> results = new PortProber(500, 50, 200).probe(Arrays.asList(open, late), 10000);
+        long millis = System.currentTimeMillis() - start;
+        opener.join();
+
+        assertTrue(results.get(open).isOpen());
+        assertTrue(results.get(late).isOpen());
+        assertTrue(results.get(late).getAttempts() > 1);
+        assertTrue("took " + millis + " ms", millis < 3000);
+    }
+
+    @Test
+    public void closedPortTimesOutAtDeadline() throws Exception {
+        Target closed = new Target(LOOPBACK, freePort());
+
+        long start = System.currentTimeMillis();
+        Result result = new PortProber(200, 50, 200).probe(Arrays.asList(closed), 600).get(closed);
+        long millis = System.currentTimeMillis() - start;
+
+        assertEquals(Status.TIMED_OUT, result.getStatus());
+        assertNotNull(result.getLastError());
+        assertTrue(millis >= 600);
+        assertTrue("took " + millis + " ms", millis < 2000);
+    }
+
+    @Test
+    public void givenUpPortIsNotProbedAnymore() throws Exception {
+        Target closed = new Target(LOOPBACK, freePort());
+
+        Result result = new PortProber(200, 50, 200).probe(Arrays.asList(closed), 10000, t -> true).get(closed);
+
+        assertEquals(Status.GAVE_UP, result.getStatus());
+        assertEquals(1, result.getAttempts());
+    }
+
+    @Test
+    public void backoffGrowsWithJitterUpToMaximum() {
+        PortProber prober = new PortProber(1000, 100, 2000);
+        for (int i = 0; i < 100; i++) {
+            long first = prober.backoff(1);
+            assertTrue(first >= 50 && first <= 100);
+            long third = prober.backoff(3);
+            assertTrue(third >= 200 && third <= 400);
+            long capped = prober.backoff(30);
+            assertTrue(capped >= 1000 && capped <= 2000);
+        }
+    }
+}
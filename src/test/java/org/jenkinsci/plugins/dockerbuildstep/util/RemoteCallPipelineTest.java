@@ -0,0 +1,161 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import hudson.remoting.LocalChannel;
+import jenkins.security.MasterToSlaveCallable;
+
+public class RemoteCallPipelineTest {
+
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger maxRunning = new AtomicInteger();
+
+    /**
+     * Gated calls wait for this latch, so the test decides when they finish.
+     */
+    private static volatile CountDownLatch gate;
+
+    private enum Gate {
+        /** finishes right away */
+        NONE,
+        /** counts the latch down, then waits for the other calls to do so */
+        BARRIER,
+        /** waits until the test releases it */
+        HOLD
+    }
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Before
+    public void reset() {
+        running.set(0);
+        maxRunning.set(0);
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void overlapsCallsWithinWindowAndKeepsOrder() throws Exception {
+        // each call waits until three calls run at the same time
+        gate = new CountDownLatch(3);
+        RemoteCallPipeline<String> pipeline = new RemoteCallPipeline<String>(new LocalChannel(executor), 3);
+
+        for (int i = 0; i < 6; i++) {
+            pipeline.submit("c" + i, new GatedCall("c" + i, i == 4, Gate.BARRIER));
+        }
+        List<RemoteCallPipeline.Outcome<String>> outcomes = pipeline.awaitAll();
+
+        assertEquals(6, outcomes.size());
+        for (int i = 0; i < 6; i++) {
+            RemoteCallPipeline.Outcome<String> outcome = outcomes.get(i);
+            assertEquals("c" + i, outcome.getKey());
+            if (i == 4) {
+                assertTrue(outcome.isFailed());
+                assertEquals("no such container: c4", outcome.getErrorMessage());
+            } else {
+                assertFalse(outcome.isFailed());
+                assertEquals("started c" + i, outcome.getValue());
+            }
+        }
+        assertEquals("calls should overlap up to the window", 3, maxRunning.get());
+    }
+
+    @Test
+    public void slowCallDoesNotStallLaterSubmissions() throws Exception {
+        gate = new CountDownLatch(1);
+        RemoteCallPipeline<String> pipeline = new RemoteCallPipeline<String>(new LocalChannel(executor), 2);
+
+        // only the first call waits for the gate, the others use the free slot one after another
+        pipeline.submit("slow", new GatedCall("slow", false, Gate.HOLD));
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit("c" + i, new GatedCall("c" + i, false, Gate.NONE));
+        }
+        gate.countDown();
+        List<RemoteCallPipeline.Outcome<String>> outcomes = pipeline.awaitAll();
+
+        assertEquals("slow", outcomes.get(0).getKey());
+        assertEquals("submissions shouldn't wait for the slow call", "started slow", outcomes.get(0).getValue());
+        assertEquals("c4", outcomes.get(5).getKey());
+        assertTrue("at most 2 calls should run at once, was " + maxRunning.get(), maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void hasFailuresSeesFailureBehindRunningCall() throws Exception {
+        gate = new CountDownLatch(1);
+        RemoteCallPipeline<String> pipeline = new RemoteCallPipeline<String>(new LocalChannel(executor), 2);
+
+        pipeline.submit("slow", new GatedCall("slow", false, Gate.HOLD));
+        pipeline.submit("c1", new GatedCall("c1", true, Gate.NONE));
+        // a slot frees up only when the failing call finishes
+        pipeline.awaitCapacity();
+
+        assertEquals("slow call should still run", 1, running.get());
+        assertTrue(pipeline.hasFailures());
+
+        gate.countDown();
+        List<RemoteCallPipeline.Outcome<String>> outcomes = pipeline.awaitAll();
+        assertFalse(outcomes.get(0).isFailed());
+        assertTrue(outcomes.get(1).isFailed());
+    }
+
+    @Test
+    public void awaitCapacityWaitsForFreeSlot() throws Exception {
+        gate = new CountDownLatch(1);
+        RemoteCallPipeline<String> pipeline = new RemoteCallPipeline<String>(new LocalChannel(executor), 1);
+
+        pipeline.submit("c1", new GatedCall("c1", true, Gate.HOLD));
+        assertFalse("running call hasn't failed yet", pipeline.hasFailures());
+
+        gate.countDown();
+        pipeline.awaitCapacity();
+        assertTrue(pipeline.hasFailures());
+    }
+
+    private static class GatedCall extends MasterToSlaveCallable<String, Exception> {
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+        private final boolean fail;
+        private final Gate mode;
+
+        GatedCall(String id, boolean fail, Gate mode) {
+            this.id = id;
+            this.fail = fail;
+            this.mode = mode;
+        }
+
+        public String call() throws Exception {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (mode == Gate.BARRIER) {
+                    gate.countDown();
+                }
+                if (mode != Gate.NONE) {
+                    if (!gate.await(10, TimeUnit.SECONDS)) {
+                        return "timed out " + id;
+                    }
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+            if (fail) {
+                throw new IllegalStateException("no such container: " + id);
+            }
+            return "started " + id;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+
+import hudson.EnvVars;
+import hudson.model.EnvironmentContributingAction;
+import hudson.model.EnvironmentContributor;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.InvisibleAction;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Run;
+import hudson.model.StringParameterDefinition;
+import hudson.model.TaskListener;
+
+/**
+ * Compares resolving the fields of a step with and without {@link ResolutionContext} on a build with many parameters.
+ */
+public class ResolutionContextBenchmarkTest {
+
+    private static final int PARAMETERS = 200;
+    /** about as many fields as the create container command resolves */
+    private static final int FIELDS = 15;
+    private static final int STEPS = 50;
+
+    private static final AtomicInteger environmentComputations = new AtomicInteger();
+
+    @Rule public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void computesEnvironmentOncePerStep() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        List<ParameterDefinition> parameters = new ArrayList<ParameterDefinition>();
+        for (int i = 0; i < PARAMETERS; i++) {
+            parameters.add(new StringParameterDefinition("PARAM_" + i, "value-" + i));
+        }
+        project.addProperty(new ParametersDefinitionProperty(parameters));
+        FreeStyleBuild build = j.buildAndAssertSuccess(project);
+
+        environmentComputations.set(0);
+        for (int step = 0; step < STEPS; step++) {
+            resolveFields(build);
+        }
+        int computationsWithoutContext = environmentComputations.getAndSet(0);
+
+        for (int step = 0; step < STEPS; step++) {
+            try (ResolutionContext ctx = ResolutionContext.open(build)) {
+                resolveFields(build);
+            }
+        }
+        int computationsWithContext = environmentComputations.get();
+
+        assertEquals(STEPS * FIELDS, computationsWithoutContext);
+        assertEquals(STEPS, computationsWithContext);
+    }
+
+    @Test
+    public void recomputesEnvironmentWhenInvalidated() throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        try (ResolutionContext ctx = ResolutionContext.open(build)) {
+            assertEquals("${ADDED_VAR}", Resolver.buildVar(build, "${ADDED_VAR}"));
+            build.addAction(new EnvAction());
+            ResolutionContext.invalidate(build);
+            assertEquals("added", Resolver.buildVar(build, "${ADDED_VAR}"));
+        }
+    }
+
+    @Test
+    public void unrelatedActionsKeepEnvironment() throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        try (ResolutionContext ctx = ResolutionContext.open(build)) {
+            Resolver.buildVar(build, "${ADDED_VAR}");
+            environmentComputations.set(0);
+            build.addAction(new InvisibleAction() {
+            });
+            Resolver.buildVar(build, "${ADDED_VAR}");
+            assertEquals(0, environmentComputations.get());
+        }
+    }
+
+    private static void resolveFields(FreeStyleBuild build) {
+        for (int i = 0; i < FIELDS; i++) {
+            assertEquals("value-" + i, Resolver.buildVar(build, "${PARAM_" + i + "}"));
+        }
+    }
+
+    private static class EnvAction extends InvisibleAction implements EnvironmentContributingAction {
+        @Override
+        public void buildEnvironment(Run<?, ?> run, EnvVars env) {
+            env.put("ADDED_VAR", "added");
+        }
+    }
+
+    @TestExtension
+    public static class CountingContributor extends EnvironmentContributor {
+        @Override
+        public void buildEnvironmentFor(@SuppressWarnings("rawtypes") Run r, EnvVars envs, TaskListener listener) {
+            environmentComputations.incrementAndGet();
+        }
+    }
+}
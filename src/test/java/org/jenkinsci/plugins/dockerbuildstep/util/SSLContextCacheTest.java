@@ -0,0 +1,70 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import javax.net.ssl.SSLContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SSLContextCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File certDir;
+
+    @Before
+    public void copyCertificates() throws Exception {
+        SSLContextCache.clear();
+        certDir = tmp.newFolder("certs");
+        for (String name : new String[] { "key.pem", "cert.pem", "ca.pem" }) {
+            try (InputStream in = getClass().getResourceAsStream("certs/" + name)) {
+                Files.copy(in, new File(certDir, name).toPath());
+            }
+        }
+    }
+
+    @After
+    public void clearCache() {
+        SSLContextCache.clear();
+    }
+
+    @Test
+    public void contextIsSharedForSameDirectory() throws Exception {
+        SSLContext first = SSLContextCache.get(certDir.getPath());
+
+        assertNotNull(first);
+        assertSame(first, SSLContextCache.get(certDir.getPath()));
+        assertSame("clients share the context of the directory", first,
+                SSLContextCache.sslConfig(certDir.getPath()).getSSLContext());
+    }
+
+    @Test
+    public void contextIsRebuiltWhenCertificatesChange() throws Exception {
+        SSLContext first = SSLContextCache.get(certDir.getPath());
+
+        File cert = new File(certDir, "cert.pem");
+        assertTrue(cert.setLastModified(cert.lastModified() - 60000));
+        SSLContext second = SSLContextCache.get(certDir.getPath());
+
+        assertNotNull(second);
+        assertNotSame(first, second);
+        assertSame(second, SSLContextCache.get(certDir.getPath()));
+    }
+
+    @Test
+    public void clearDropsCachedContexts() throws Exception {
+        SSLContext first = SSLContextCache.get(certDir.getPath());
+        SSLContextCache.clear();
+
+        assertNotSame(first, SSLContextCache.get(certDir.getPath()));
+    }
+}
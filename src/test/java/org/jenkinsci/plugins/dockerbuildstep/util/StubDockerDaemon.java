@@ -0,0 +1,99 @@
+package org.jenkinsci.plugins.dockerbuildstep.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jenkinsci.plugins.dockerbuildstep.DockerBuilder.Config;
+import org.junit.rules.ExternalResource;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stub of the Docker daemon listening on loopback, answering every request with the given handler. Handlers
+ * streaming a response, e.g. events, can block in {@link #awaitStop()} until the test ends.
+ */
+public class StubDockerDaemon extends ExternalResource {
+
+    private final HttpHandler handler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private HttpServer server;
+    private ExecutorService threads;
+
+    public StubDockerDaemon(HttpHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    protected void before() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                handler.handle(exchange);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        threads = Executors.newCachedThreadPool();
+        server.setExecutor(threads);
+        server.start();
+    }
+
+    @Override
+    protected void after() {
+        stopped.countDown();
+        server.stop(0);
+        threads.shutdownNow();
+    }
+
+    /**
+     * @return settings connecting to this daemon with a pool of 8 connections
+     */
+    public Config config() {
+        return config(8);
+    }
+
+    public Config config(int maxConnections) {
+        return new Config("tcp://127.0.0.1:" + server.getAddress().getPort(), null, null, maxConnections, 5, 30);
+    }
+
+    /**
+     * @return highest number of requests handled at the same time since the last call
+     */
+    public int takeMaxInFlight() {
+        return maxInFlight.getAndSet(0);
+    }
+
+    /**
+     * Blocks until the test ends.
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    public static void send(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}